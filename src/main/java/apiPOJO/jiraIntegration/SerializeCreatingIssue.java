@@ -1,12 +1,8 @@
 package apiPOJO.jiraIntegration;
 
-import io.restassured.RestAssured;
-
 public class SerializeCreatingIssue {
 
     public CreateIssue createJson(String summary, String description, String steps) {
-        RestAssured.baseURI = "URI to JIRA";
-
         CreateIssue createIssue = new CreateIssue();
         Fields fields = new Fields();
         Project project = new Project();
@@ -0,0 +1,59 @@
+package setupAndUtilitys.driverFactory;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import setupAndUtilitys.util.Resources;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DriverBinaryResolver {
+
+    /**
+     * Driver binary (chromedriver, geckodriver) is resolved only once per JVM for each browser, and all threads share
+     * the resolved path. Threads that ask for the same browser at the same time wait for the first one to finish.
+     *
+     * @resolvedPaths -> map of browser and absolute path to its driver binary.
+     */
+    private static final Map<String, String> resolvedPaths = new ConcurrentHashMap<>();
+    private static final boolean offline = Boolean.parseBoolean(Resources.driverResolutionOffline.getResource());
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * @param browser chrome or firefox, headless uses chrome binary.
+     * @return path to the driver binary. It's also set as system property so Selenium can find it.
+     */
+    public static String resolve(String browser) {
+        switch (browser) {
+            case "chrome":
+            case "headless":
+                return resolvedPaths.computeIfAbsent("chrome", key ->
+                        resolve("webdriver.chrome.driver", Resources.chromeDriverPath.getResource(), WebDriverManager.chromedriver()));
+            case "firefox":
+                return resolvedPaths.computeIfAbsent("firefox", key ->
+                        resolve("webdriver.gecko.driver", Resources.firefoxDriverPath.getResource(), WebDriverManager.firefoxdriver()));
+            default:
+                throw new IllegalArgumentException("There is no driver binary for browser: " + browser);
+        }
+    }
+
+    private static String resolve(String systemProperty, String pinnedPath, WebDriverManager webDriverManager) {
+        String path;
+        if (!pinnedPath.isEmpty()) {
+            if (!new File(pinnedPath).isFile()) {
+                throw new IllegalStateException("Pinned driver binary doesn't exist: " + pinnedPath);
+            }
+            path = pinnedPath;
+        } else if (offline) {
+            throw new IllegalStateException("Driver resolution is offline but there is no pinned path for " + systemProperty
+                    + ". Set it in Resources.");
+        } else {
+            webDriverManager.setup();
+            path = webDriverManager.getDownloadedDriverPath();
+        }
+        System.setProperty(systemProperty, path);
+        return path;
+    }
+}
@@ -1,6 +1,5 @@
 package setupAndUtilitys.driverFactory;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -10,10 +9,11 @@ import org.openqa.selenium.safari.SafariDriver;
 public class DriverFactory {
 
     public static ThreadLocal<WebDriver> tlDriver = new ThreadLocal<>();
+    private static final ThreadLocal<String> tlBrowser = new ThreadLocal<>();
 
     /**
      * This method is used to initialize the thradlocal driver on the basis of given
-     * browser
+     * browser. Driver is borrowed from DriverPool, so it's already started and cleaned from previous scenario.
      *
      * @param browser get the name of the specified browser
      * @return this will return tldriver.
@@ -23,43 +23,70 @@ public class DriverFactory {
 
         System.out.println("browser value is: " + browser);
 
+        tlDriver.set(DriverPool.borrow(browser));
+        tlBrowser.set(browser);
+
+        getDriver().manage().deleteAllCookies();
+        getDriver().manage().window().maximize();
+        return getDriver();
+
+    }
+
+    /**
+     * This method is used to give the driver of the current thread back to the DriverPool instead of quitting it.
+     */
+    public void release_driver() {
+        WebDriver driver = tlDriver.get();
+        if (driver != null) {
+            DriverPool.release(tlBrowser.get(), driver);
+        }
+        tlDriver.remove();
+        tlBrowser.remove();
+    }
+
+    /**
+     * This method is used by DriverPool to start new browser of the given type.
+     *
+     * @param browser get the name of the specified browser
+     * @return this will return new started driver.
+     */
+    static WebDriver createDriver(String browser) {
+
+        WebDriver driver;
         switch (browser) {
 
             case "chrome":
-                WebDriverManager.chromedriver().setup();
-                tlDriver.set(new ChromeDriver());
+                DriverBinaryResolver.resolve(browser);
+                driver = new ChromeDriver();
                 break;
             case "firefox":
-                WebDriverManager.firefoxdriver().setup();
-                tlDriver.set(new FirefoxDriver());
+                DriverBinaryResolver.resolve(browser);
+                driver = new FirefoxDriver();
                 break;
             case "safari":
-                tlDriver.set(new SafariDriver());
+                driver = new SafariDriver();
                 break;
             case "headless":
                 ChromeOptions options = new ChromeOptions();
                 options.addArguments("--headless", "window-size=1920,1080");
-                WebDriverManager.chromedriver().setup();
-                tlDriver.set(new ChromeDriver(options));
+                DriverBinaryResolver.resolve(browser);
+                driver = new ChromeDriver(options);
                 break;
             default:
-                System.out.println("Please pass the correct browser value: " + browser);
-                break;
+                throw new IllegalArgumentException("Please pass the correct browser value: " + browser);
         }
 
-        getDriver().manage().deleteAllCookies();
-        getDriver().manage().window().maximize();
-        return getDriver();
-
+        driver.manage().window().maximize();
+        return driver;
     }
 
     /**
      * this is used to get the driver with ThreadLocal
      *
      * @return it will return the driver of the current thread.
-     * Synchronized is used for thread safety so variables that are used acres test don't have wrong values.
+     * ThreadLocal already keeps one driver per thread, so there is no lock here and parallel threads don't wait for each other.
      */
-    public static synchronized WebDriver getDriver() {
+    public static WebDriver getDriver() {
         return tlDriver.get();
     }
 }
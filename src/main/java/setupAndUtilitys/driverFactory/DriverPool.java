@@ -0,0 +1,301 @@
+package setupAndUtilitys.driverFactory;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class DriverPool {
+
+    /**
+     * Pool of already started browsers, one pool per browser type (chrome, firefox, headless...etc.).
+     * Scenarios borrow a browser from the pool and return it once they are finished. Returned browsers are
+     * cleaned (cookies, storage, tabs, window size) instead of quit, so the next scenario doesn't pay for a new browser.
+     *
+     * @pools -> map of browser type and the pool for that browser type.
+     * @minSize -> number of browsers that are started up front for each browser type.
+     * @maxSize -> maximum number of browsers (borrowed + waiting) for each browser type.
+     * @maxReuse -> number of scenarios after which browser is quit and replaced with a fresh one.
+     * @borrowTimeout -> how long in milliseconds scenario waits for free browser before it fails.
+     */
+    private static final Map<String, BrowserPool> pools = new ConcurrentHashMap<>();
+    private static final int minSize = Integer.parseInt(Resources.driverPoolMinSize.getResource());
+    private static final int maxSize = Integer.parseInt(Resources.driverPoolMaxSize.getResource());
+    private static final int maxReuse = Integer.parseInt(Resources.driverPoolMaxReuse.getResource());
+    private static final long borrowTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(Resources.driverPoolBorrowTimeoutSeconds.getResource()));
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverPool.class);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+    }
+
+    private DriverPool() {
+    }
+
+    /**
+     * @param browser type of the browser that is needed.
+     * @return healthy browser that is not used by any other scenario.
+     */
+    public static WebDriver borrow(String browser) {
+        BrowserPool pool = pools.get(browser);
+        if (pool == null) {
+            BrowserPool created = new BrowserPool(browser);
+            pool = pools.putIfAbsent(browser, created);
+            if (pool == null) {
+                pool = created;
+                pool.startWarmUp();
+            }
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * @param browser type of the browser that was borrowed.
+     * @param driver  browser that scenario is done with. It will be cleaned and given to the next scenario, or quit
+     *                if it's broken or used too many times.
+     */
+    public static void release(String browser, WebDriver driver) {
+        BrowserPool pool = pools.get(browser);
+        if (pool == null) {
+            driver.quit();
+            return;
+        }
+        pool.release(driver);
+    }
+
+    /**
+     * Quit all browsers that are waiting in the pool. Borrowed browsers are quit once they are returned.
+     */
+    public static void shutdown() {
+        for (BrowserPool pool : pools.values()) {
+            pool.close();
+        }
+    }
+
+    /**
+     * This method will check if the browser still responds. Browser that crashed or was closed is not given to scenarios.
+     */
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            return !driver.getWindowHandles().isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * This method will return browser in the same state as a freshly started one:
+     * only one tab, blank page, no cookies, no local or session storage and maximized window.
+     */
+    private static boolean reset(WebDriver driver) {
+        try {
+            String firstTab = null;
+            for (String handle : driver.getWindowHandles()) {
+                if (firstTab == null) {
+                    firstTab = handle;
+                } else {
+                    driver.switchTo().window(handle).close();
+                }
+            }
+            driver.switchTo().window(firstTab);
+            driver.switchTo().defaultContent();
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            driver.get("about:blank");
+            driver.manage().window().maximize();
+            return true;
+        } catch (Exception e) {
+            logger.warn("Unable to reset browser, it will be quit instead: {}", e.toString());
+            return false;
+        }
+    }
+
+    private static void quietlyQuit(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.warn("Unable to quit browser: {}", e.toString());
+        }
+    }
+
+    private static class BrowserPool {
+
+        private final String browser;
+        private final Deque<WebDriver> idle = new ArrayDeque<>();
+        private final Map<WebDriver, Integer> numberOfUses = new IdentityHashMap<>();
+        private int alive;
+        private int warming;
+        private int awaitingWarm;
+        private boolean closed;
+
+        BrowserPool(String browser) {
+            this.browser = browser;
+        }
+
+        /**
+         * Start browsers in the background until there are minSize of them, so first scenarios don't wait for them.
+         * Slots are reserved before the thread starts, so borrow() called right after this waits for a warming
+         * browser instead of starting one more. It's called once the pool is published in pools.
+         */
+        void startWarmUp() {
+            int count;
+            synchronized (this) {
+                count = Math.max(0, Math.min(minSize, maxSize) - alive);
+                alive += count;
+                warming += count;
+            }
+            if (count == 0) {
+                return;
+            }
+            Thread warmUp = new Thread(() -> warmUp(count), "driver-pool-warm-up-" + browser);
+            warmUp.setDaemon(true);
+            warmUp.start();
+        }
+
+        private void warmUp(int count) {
+            for (int i = 0; i < count; i++) {
+                WebDriver driver = null;
+                synchronized (this) {
+                    if (closed) {
+                        warming -= count - i;
+                        alive -= count - i;
+                        notifyAll();
+                        return;
+                    }
+                }
+                try {
+                    driver = startBrowser();
+                } catch (RuntimeException e) {
+                    logger.error("Unable to warm up {} browser: {}", browser, e.toString());
+                }
+                synchronized (this) {
+                    warming--;
+                    if (driver != null && !closed) {
+                        idle.addLast(driver);
+                        driver = null;
+                    }
+                    notifyAll();
+                }
+                if (driver != null) {
+                    destroy(driver);
+                }
+            }
+        }
+
+        WebDriver borrow() {
+            long deadline = System.currentTimeMillis() + borrowTimeout;
+            while (true) {
+                WebDriver driver;
+                boolean startNew = false;
+                synchronized (this) {
+                    // Borrower waits for a browser that warm-up is starting, if no other borrower waits for it already.
+                    boolean awaitsWarm = false;
+                    try {
+                        while (idle.isEmpty()) {
+                            boolean warmAvailable = warming > awaitingWarm - (awaitsWarm ? 1 : 0);
+                            if (!warmAvailable && alive < maxSize) {
+                                break;
+                            }
+                            if (warmAvailable != awaitsWarm) {
+                                awaitingWarm += warmAvailable ? 1 : -1;
+                                awaitsWarm = warmAvailable;
+                            }
+                            long remaining = deadline - System.currentTimeMillis();
+                            if (remaining <= 0) {
+                                throw new IllegalStateException("No free " + browser + " browser after " + borrowTimeout
+                                        + " ms, all " + maxSize + " are in use.");
+                            }
+                            try {
+                                wait(remaining);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                throw new IllegalStateException("Interrupted while waiting for " + browser + " browser.", e);
+                            }
+                        }
+                    } finally {
+                        if (awaitsWarm) {
+                            awaitingWarm--;
+                        }
+                    }
+                    driver = idle.pollFirst();
+                    if (driver == null) {
+                        alive++;
+                        startNew = true;
+                    }
+                }
+
+                if (startNew) {
+                    return startBrowser();
+                }
+                if (isHealthy(driver)) {
+                    return driver;
+                }
+                destroy(driver);
+            }
+        }
+
+        void release(WebDriver driver) {
+            int uses;
+            synchronized (this) {
+                uses = numberOfUses.merge(driver, 1, Integer::sum);
+            }
+            if (uses >= maxReuse || !reset(driver)) {
+                destroy(driver);
+                return;
+            }
+            synchronized (this) {
+                if (!closed) {
+                    idle.addFirst(driver);
+                    notifyAll();
+                    return;
+                }
+            }
+            destroy(driver);
+        }
+
+        synchronized void close() {
+            closed = true;
+            for (WebDriver driver : idle) {
+                numberOfUses.remove(driver);
+                alive--;
+                quietlyQuit(driver);
+            }
+            idle.clear();
+        }
+
+        /**
+         * Slot for this browser is already reserved, so the browser can be started outside of the lock.
+         * If the browser can't be started the slot is given back.
+         */
+        private WebDriver startBrowser() {
+            try {
+                return DriverFactory.createDriver(browser);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    alive--;
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+
+        private void destroy(WebDriver driver) {
+            quietlyQuit(driver);
+            synchronized (this) {
+                numberOfUses.remove(driver);
+                alive--;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -6,6 +6,10 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.Cell;
@@ -18,28 +22,59 @@ import org.apache.poi.ss.util.NumberToTextConverter;
 
 public class ExcelReader {
 
+	/**
+	 * Sheet is read only once and then taken from ExcelSheetCache until the file is changed.
+	 * Returned rows are shared by all threads, so they can't be changed.
+	 *
+	 * @param excelFilePath path to the Excel file.
+	 * @param sheetName     name of the sheet that should be read.
+	 * @return rows of the sheet without the header row, column name and value.
+	 */
 	public List<Map<String, String>> getData(String excelFilePath, String sheetName)
 			throws InvalidFormatException, IOException {
-		Sheet sheet = getSheetByName(excelFilePath, sheetName);
-		return readSheet(sheet);
+		return ExcelSheetCache.get(excelFilePath, sheetName, () -> {
+			try (Workbook workbook = getWorkBook(excelFilePath)) {
+				return readSheet(workbook.getSheet(sheetName));
+			}
+		});
 	}
 
 	public List<Map<String, String>> getData(String excelFilePath, int sheetNumber)
 			throws InvalidFormatException, IOException {
-		Sheet sheet = getSheetByIndex(excelFilePath, sheetNumber);
-		return readSheet(sheet);
+		return ExcelSheetCache.get(excelFilePath, sheetNumber, () -> {
+			try (Workbook workbook = getWorkBook(excelFilePath)) {
+				return readSheet(workbook.getSheetAt(sheetNumber));
+			}
+		});
+	}
+
+	/**
+	 * Streaming mode for big .xlsx sheets. Rows are read one by one while the stream is consumed, so the whole workbook
+	 * is never loaded into memory. Header row is resolved only once and shared by all rows.
+	 * Stream must be closed after use, best with try-with-resources.
+	 *
+	 * @param excelFilePath path to the .xlsx file.
+	 * @param sheetName     name of the sheet that should be read.
+	 * @return rows of the sheet without the header row.
+	 */
+	public Stream<ExcelRow> streamData(String excelFilePath, String sheetName) throws IOException {
+		return toStream(StreamingExcelReader.open(excelFilePath, sheetName, -1));
 	}
 
-	private Sheet getSheetByName(String excelFilePath, String sheetName) throws IOException, InvalidFormatException {
-		return getWorkBook(excelFilePath).getSheet(sheetName);
+	public Stream<ExcelRow> streamData(String excelFilePath, int sheetNumber) throws IOException {
+		return toStream(StreamingExcelReader.open(excelFilePath, null, sheetNumber));
 	}
 
-	private Sheet getSheetByIndex(String excelFilePath, int sheetNumber) throws IOException, InvalidFormatException {
-		return getWorkBook(excelFilePath).getSheetAt(sheetNumber);
+	private Stream<ExcelRow> toStream(StreamingExcelReader reader) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(reader::close);
 	}
 
+	/**
+	 * Workbook is opened read only, so closing it never writes anything back to the file.
+	 */
 	private Workbook getWorkBook(String excelFilePath) throws IOException, InvalidFormatException {
-		return WorkbookFactory.create(new File(excelFilePath));
+		return WorkbookFactory.create(new File(excelFilePath), null, true);
 	}
 
 	private List<Map<String, String>> readSheet(Sheet sheet) {
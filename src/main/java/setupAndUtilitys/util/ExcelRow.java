@@ -0,0 +1,93 @@
+package setupAndUtilitys.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ExcelRow {
+
+	/**
+	 * One row of the sheet that is read with the streaming reader. All rows of the same sheet share the same header,
+	 * so a row holds only its values, one per column.
+	 *
+	 * @header -> column names, resolved once from the header row. Columns with blank header are not read.
+	 * @rowNumber -> number of the row in the sheet, starting with 0.
+	 * @values -> values of the row in the same order as the header columns.
+	 */
+	private final Header header;
+	private final int rowNumber;
+	private final String[] values;
+
+	ExcelRow(Header header, int rowNumber, String[] values) {
+		this.header = header;
+		this.rowNumber = rowNumber;
+		this.values = values;
+	}
+
+	public int getRowNumber() {
+		return rowNumber;
+	}
+
+	/**
+	 * @param columnName name of the column from the header row.
+	 * @return value of the cell, empty string if the cell is blank, or null if there is no such column.
+	 */
+	public String get(String columnName) {
+		Integer index = header.positions.get(columnName);
+		return index == null ? null : values[index];
+	}
+
+	/**
+	 * @return row in the same format as ExcelReader.getData() returns it, column name and value.
+	 */
+	public Map<String, String> toMap() {
+		Map<String, String> row = new LinkedHashMap<>();
+		for (int i = 0; i < values.length; i++) {
+			row.put(header.names[i], values[i]);
+		}
+		return row;
+	}
+
+	@Override
+	public String toString() {
+		return rowNumber + " " + Arrays.toString(values);
+	}
+
+	/**
+	 * Header row of the sheet.
+	 *
+	 * @names -> names of the columns with non blank header.
+	 * @columns -> index of the sheet column (A = 0) for each name.
+	 * @positions -> position of each name in the names array, used to find the value by the column name.
+	 * @positionOfColumn -> position in the names array for each sheet column, or -1 if the column is not read.
+	 */
+	static class Header {
+		private final String[] names;
+		private final Map<String, Integer> positions = new LinkedHashMap<>();
+		private final int[] positionOfColumn;
+
+		Header(Map<Integer, String> columns) {
+			names = columns.values().toArray(new String[0]);
+			int lastColumn = columns.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+			positionOfColumn = new int[lastColumn + 1];
+			Arrays.fill(positionOfColumn, -1);
+			int position = 0;
+			for (Map.Entry<Integer, String> column : columns.entrySet()) {
+				positionOfColumn[column.getKey()] = position;
+				positions.put(column.getValue(), position);
+				position++;
+			}
+		}
+
+		int size() {
+			return names.length;
+		}
+
+		/**
+		 * @return position of the sheet column in the row values, or -1 if the column is not read.
+		 */
+		int positionOf(int column) {
+			return column < positionOfColumn.length ? positionOfColumn[column] : -1;
+		}
+	}
+}
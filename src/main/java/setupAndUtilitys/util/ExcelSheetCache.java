@@ -0,0 +1,148 @@
+package setupAndUtilitys.util;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+class ExcelSheetCache {
+
+	/**
+	 * Sheets that were already read, shared by all threads. Sheet is read again only if its file is changed.
+	 * Returned rows are unmodifiable, so parallel scenarios can use the same list.
+	 * Cache is limited by the total number of cached rows, least recently used sheets are removed first.
+	 *
+	 * @sheets -> map of path + sheet and the cached sheet, ordered from least to most recently used.
+	 * @maxRows -> maximum number of rows of all cached sheets together.
+	 * @cachedRows -> number of rows of all sheets that are currently in the cache.
+	 */
+	private static final Map<String, CachedSheet> sheets = new LinkedHashMap<>(16, 0.75f, true);
+	private static final long maxRows = Long.parseLong(Resources.excelCacheMaxRows.getResource());
+	private static long cachedRows;
+
+	private ExcelSheetCache() {
+	}
+
+	interface SheetLoader {
+		List<Map<String, String>> load() throws InvalidFormatException, IOException;
+	}
+
+	/**
+	 * If more threads ask for the same sheet at the same time, only one of them reads it, others wait for it.
+	 *
+	 * @param excelFilePath path to the Excel file.
+	 * @param sheet         name or index of the sheet.
+	 * @param loader        reads the sheet if it's not cached.
+	 * @return unmodifiable rows of the sheet.
+	 */
+	static List<Map<String, String>> get(String excelFilePath, Object sheet, SheetLoader loader)
+			throws InvalidFormatException, IOException {
+		Path path = Paths.get(excelFilePath).toAbsolutePath();
+		long lastModified = Files.getLastModifiedTime(path).toMillis();
+		String key = path + "#" + (sheet instanceof Integer ? "index:" + sheet : "name:" + sheet);
+
+		CachedSheet cachedSheet;
+		boolean load = false;
+		synchronized (sheets) {
+			cachedSheet = sheets.get(key);
+			if (cachedSheet == null || cachedSheet.lastModified != lastModified) {
+				remove(key);
+				cachedSheet = new CachedSheet(lastModified);
+				sheets.put(key, cachedSheet);
+				load = true;
+			}
+		}
+
+		if (load) {
+			try {
+				List<Map<String, String>> rows = immutableCopy(loader.load());
+				cachedSheet.rows.complete(rows);
+				added(key, cachedSheet, rows.size());
+			} catch (InvalidFormatException | IOException | RuntimeException e) {
+				cachedSheet.rows.completeExceptionally(e);
+				synchronized (sheets) {
+					sheets.remove(key, cachedSheet);
+				}
+				throw e;
+			}
+		}
+		return await(cachedSheet);
+	}
+
+	private static List<Map<String, String>> immutableCopy(List<Map<String, String>> rows) {
+		List<Map<String, String>> copy = new ArrayList<>(rows.size());
+		for (Map<String, String> row : rows) {
+			copy.add(Collections.unmodifiableMap(row));
+		}
+		return Collections.unmodifiableList(copy);
+	}
+
+	private static void added(String key, CachedSheet cachedSheet, int rows) {
+		synchronized (sheets) {
+			if (sheets.get(key) != cachedSheet) {
+				return;
+			}
+			cachedSheet.size = rows;
+			cachedRows += rows;
+			Iterator<Map.Entry<String, CachedSheet>> leastRecentlyUsed = sheets.entrySet().iterator();
+			while (cachedRows > maxRows && leastRecentlyUsed.hasNext()) {
+				Map.Entry<String, CachedSheet> entry = leastRecentlyUsed.next();
+				if (entry.getValue() != cachedSheet) {
+					cachedRows -= entry.getValue().size;
+					leastRecentlyUsed.remove();
+				}
+			}
+		}
+	}
+
+	private static void remove(String key) {
+		CachedSheet removed = sheets.remove(key);
+		if (removed != null) {
+			cachedRows -= removed.size;
+		}
+	}
+
+	private static List<Map<String, String>> await(CachedSheet cachedSheet) throws InvalidFormatException, IOException {
+		try {
+			return cachedSheet.rows.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the sheet to be read.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof InvalidFormatException) {
+				throw (InvalidFormatException) cause;
+			}
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * @size -> number of rows, it's 0 until the sheet is read.
+	 */
+	private static class CachedSheet {
+		private final long lastModified;
+		private final CompletableFuture<List<Map<String, String>>> rows = new CompletableFuture<>();
+		private long size;
+
+		CachedSheet(long lastModified) {
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -1,18 +1,21 @@
 package setupAndUtilitys.util;
 
 import org.apache.commons.lang3.RandomStringUtils;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
 import org.testng.asserts.SoftAssert;
+import setupAndUtilitys.driverFactory.DriverFactory;
+import setupAndUtilitys.util.waits.BatchElementVerifier;
+import setupAndUtilitys.util.waits.BatchElementVerifier.ElementState;
+import setupAndUtilitys.util.waits.ElementReadiness;
+import setupAndUtilitys.util.waits.Waiter;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -23,61 +26,132 @@ import java.text.DateFormat;
 import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.time.*;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @SuppressWarnings("unused")
 
 public abstract class FunctionsPage {
 
-    protected WebDriverWait wait;
-    protected static WebDriver driver;
-    private final Clock clock;
+    protected final WebDriver driver;
+    private final Thread ownerThread;
+    private Duration waitTimeout = Duration.ofSeconds(5);
+    private final Duration pollingInterval = Duration.ofMillis(500);
     private final Duration timeout = Duration.ofSeconds(10);
     private final Duration refreshPeriod = Duration.ofMillis(500);
+    private final Duration readinessTimeout = Duration.ofSeconds(2);
+    private final Duration pageCheckTimeout = Duration.ofSeconds(5);
+    private static final String IFRAME_PATH_SEPARATOR = ">";
 
     Logger logger = LoggerFactory.getLogger(FunctionsPage.class);
 
+    /**
+     * Page object is bound to the thread that created it and to the driver of that thread (DriverFactory.tlDriver).
+     * In parallel execution every scenario has its own page objects, so they can't point to another scenario's browser.
+     *
+     * @param driver driver of the current thread, DriverFactory.getDriver().
+     */
     public FunctionsPage(WebDriver driver) {
-        FunctionsPage.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(5));
-        this.clock = Clock.systemDefaultZone();
+        WebDriver threadDriver = DriverFactory.getDriver();
+        if (threadDriver != null && threadDriver != driver) {
+            throw new IllegalStateException(getClass().getSimpleName() + " was created with a driver that doesn't belong to thread "
+                    + Thread.currentThread().getName() + ". Use DriverFactory.getDriver().");
+        }
+        this.driver = driver;
+        this.ownerThread = Thread.currentThread();
     }
 
+    /**
+     * This is used for every interaction with the browser. It will fail fast if the page object is used from another
+     * thread than the one that created it, instead of sending commands to the browser of another scenario.
+     *
+     * @return driver of this page object.
+     */
+    protected WebDriver getDriver() {
+        if (Thread.currentThread() != ownerThread) {
+            throw new IllegalStateException(getClass().getSimpleName() + " was created in thread " + ownerThread.getName()
+                    + " but it's used from thread " + Thread.currentThread().getName() + ". Page objects can't be shared between scenarios.");
+        }
+        return driver;
+    }
+
+    /**
+     * @deprecated pass the timeout to the wait function instead, ex. waitIsPresent(by, Duration.ofSeconds(1)).
+     */
+    @Deprecated
     protected void setTimeoutTo1() {
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(1));
+        this.waitTimeout = Duration.ofSeconds(1);
     }
 
+    /**
+     * @deprecated pass the timeout to the wait function instead, ex. waitIsPresent(by, Duration.ofSeconds(5)).
+     */
+    @Deprecated
     protected void setTimeoutTo5() {
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(5));
+        this.waitTimeout = Duration.ofSeconds(5);
     }
 
+    /**
+     * @deprecated pass the timeout to the wait function instead, ex. waitIsPresent(by, Duration.ofSeconds(10)).
+     */
+    @Deprecated
     protected void setTimeoutTo10() {
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        this.waitTimeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * This function is used for all waits. It uses Waiter of the current thread, so no new wait object is created.
+     *
+     * @param condition condition that you wish to wait for, ex. ExpectedConditions.visibilityOfElementLocated(by).
+     * @param timeout   how long to wait for the condition.
+     * @param polling   how often the condition is checked.
+     * @return value returned by the condition.
+     */
+    protected <T> T waitUntil(Function<? super WebDriver, T> condition, Duration timeout, Duration polling) {
+        return Waiter.forDriver(getDriver()).until(condition, timeout, polling);
     }
 
     protected WebElement waitIsPresent(By by) {
-        return wait.until(ExpectedConditions.presenceOfElementLocated(by));
+        return waitIsPresent(by, waitTimeout);
+    }
+
+    protected WebElement waitIsPresent(By by, Duration timeout) {
+        return waitUntil(ExpectedConditions.presenceOfElementLocated(by), timeout, pollingInterval);
     }
 
     protected List<WebElement> waitListIsPresent(By by) {
-        return wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(by));
+        return waitListIsPresent(by, waitTimeout);
+    }
+
+    protected List<WebElement> waitListIsPresent(By by, Duration timeout) {
+        return waitUntil(ExpectedConditions.presenceOfAllElementsLocatedBy(by), timeout, pollingInterval);
     }
 
     protected void waitIsDisplayed(By by) {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+        waitIsDisplayed(by, waitTimeout);
+    }
+
+    protected void waitIsDisplayed(By by, Duration timeout) {
+        waitUntil(ExpectedConditions.visibilityOfElementLocated(by), timeout, pollingInterval);
     }
 
     protected void waitIsClickable(By by) {
-        wait.until(ExpectedConditions.elementToBeClickable(by));
+        waitIsClickable(by, waitTimeout);
+    }
+
+    protected void waitIsClickable(By by, Duration timeout) {
+        waitUntil(ExpectedConditions.elementToBeClickable(by), timeout, pollingInterval);
     }
 
     /**
      * This function is used when you want to interact with any element via Selenium
      * It will check if the element is present on the page
-     * ,then it will scroll element into view, check if it's visible, then if it's clickable.
+     * ,then it will scroll element into view and wait until it stops moving, check if it's visible, then if it's clickable.
      *
      * @param locator     of the desired element.
      * @param elementName for easier debugging and report.
@@ -88,8 +162,7 @@ public abstract class FunctionsPage {
         try {
             element = waitIsPresent(locator);
             try {
-                ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoViewIfNeeded()", element);
-                Thread.sleep(500);
+                ElementReadiness.scrollIntoViewAndWaitUntilStable(getDriver(), element, locator, readinessTimeout);
                 try {
                     waitIsDisplayed(locator);
                     try {
@@ -145,8 +218,7 @@ public abstract class FunctionsPage {
     public void checkElementsPresenceAndVisibility(By locator, String elementName, SoftAssert softAssert) {
 
         try {
-            ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoViewIfNeeded()", waitIsPresent(locator));
-            Thread.sleep(500);
+            ElementReadiness.scrollIntoViewAndWaitUntilStable(getDriver(), waitIsPresent(locator), locator, readinessTimeout);
             try {
                 waitIsDisplayed(locator);
             } catch (Exception e) {
@@ -167,8 +239,7 @@ public abstract class FunctionsPage {
     public void checkElementPresenceAndVisibility(By locator, String elementName) {
 
         try {
-            ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoViewIfNeeded()", waitIsPresent(locator));
-            Thread.sleep(500);
+            ElementReadiness.scrollIntoViewAndWaitUntilStable(getDriver(), waitIsPresent(locator), locator, readinessTimeout);
             try {
                 waitIsDisplayed(locator);
             } catch (Exception e) {
@@ -181,6 +252,7 @@ public abstract class FunctionsPage {
 
     /**
      * This function is used for checking if all predefined elements are PRESENT and DISPLAYED on the given page.
+     * All elements are checked together, so the page check takes at most pageCheckTimeout, not timeout per element.
      *
      * @param mapOfPageElements -> Providing HashMap of all elements that should be present on the given page in String,By format.
      * @param softAssert        -> Providing SoftAssert object so that all elements can be checked before throwing any exception.
@@ -192,15 +264,45 @@ public abstract class FunctionsPage {
         }
     }
 
-    private void checkIfEachElementIsPresentAndDisplayed(HashMap<String, By> mapOfPageElements, SoftAssert softAssert) {
-        for (Map.Entry<String, By> item : mapOfPageElements.entrySet()) {
-            checkElementsPresenceAndVisibility(item.getValue(), item.getKey(), softAssert);
+    /**
+     * All elements are checked in the browser with one round trip. Elements with locators that can't be checked
+     * inside the page are checked one by one.
+     */
+    private void checkIfEachElementIsPresentAndDisplayed(Map<String, By> mapOfPageElements, SoftAssert softAssert) {
+        Map<String, ElementState> results;
+        try {
+            results = BatchElementVerifier.verify(getDriver(), mapOfPageElements, pageCheckTimeout);
+        } catch (WebDriverException e) {
+            logger.atWarn().log("Batch check failed, checking elements one by one due to: " + e.getMessage());
+            for (Map.Entry<String, By> item : mapOfPageElements.entrySet()) {
+                checkElementsPresenceAndVisibility(item.getValue(), item.getKey(), softAssert);
+            }
+            return;
+        }
+        for (Map.Entry<String, ElementState> result : results.entrySet()) {
+            String elementName = result.getKey();
+            By locator = mapOfPageElements.get(elementName);
+            switch (result.getValue()) {
+                case NOT_PRESENT:
+                    softAssert.fail("Element " + elementName + " with locator: " + locator + "is not present on the page.");
+                    break;
+                case NOT_VISIBLE:
+                    softAssert.fail("Element " + elementName + " with locator: " + locator + "is not visible on the page.");
+                    break;
+                case UNSUPPORTED:
+                    checkElementsPresenceAndVisibility(locator, elementName, softAssert);
+                    break;
+                default:
+                    break;
+            }
         }
     }
 
     /**
      * This function is used to check all elements inside an iFrame.
      * If the element is expected inside iFrame, the name of element must contain name of that iFrame.
+     * Elements are grouped by iFrame first, so each iFrame is entered only once and all of its elements are checked together.
+     * For nested iFrames value in the mapOfPageIframes can be the path to it, ex. "outerFrame > innerFrame".
      *
      * @param mapOfPageElements should contain all elements, elements that are inside iFrame must contain name of iFrame inside the hashMap.
      * @param mapOfPageIframes  should contain all iFrames on the page.
@@ -209,22 +311,44 @@ public abstract class FunctionsPage {
     public void checkIfPageContainsAllElementsUsingIframe(HashMap<String, By> mapOfPageElements, HashMap<String, String> mapOfPageIframes, SoftAssert softAssert) {
         if (mapOfPageElements.size() != 0) {
 
-            String elementName;
-            for (Map.Entry<String, By> element : mapOfPageElements.entrySet()) {
-                elementName = element.getKey();
-                driver.switchTo().defaultContent();
-
-                for (Map.Entry<String, String> iframe : mapOfPageIframes.entrySet()) {
-                    if (elementName.contains(iframe.getKey())) {
-                        driver.switchTo().frame(iframe.getValue());
+            for (Map.Entry<List<String>, Map<String, By>> frameGroup : groupElementsByIframe(mapOfPageElements, mapOfPageIframes).entrySet()) {
+                getDriver().switchTo().defaultContent();
+                try {
+                    for (String iframe : frameGroup.getKey()) {
+                        getDriver().switchTo().frame(iframe);
+                    }
+                } catch (NoSuchFrameException e) {
+                    for (String elementName : frameGroup.getValue().keySet()) {
+                        softAssert.fail("Element " + elementName + " can't be checked because iFrame " + frameGroup.getKey() + " doesn't exist.");
                     }
+                    continue;
                 }
-                checkElementsPresenceAndVisibility(element.getValue(), element.getKey(), softAssert);
+                checkIfEachElementIsPresentAndDisplayed(frameGroup.getValue(), softAssert);
             }
+            getDriver().switchTo().defaultContent();
             softAssert.assertAll();
         }
     }
 
+    /**
+     * @return map of iFrame path (empty for elements outside of iFrames) and elements that are inside that iFrame.
+     */
+    private Map<List<String>, Map<String, By>> groupElementsByIframe(Map<String, By> mapOfPageElements, Map<String, String> mapOfPageIframes) {
+        Map<List<String>, Map<String, By>> frameGroups = new LinkedHashMap<>();
+        for (Map.Entry<String, By> element : mapOfPageElements.entrySet()) {
+            List<String> iframePath = new ArrayList<>();
+            for (Map.Entry<String, String> iframe : mapOfPageIframes.entrySet()) {
+                if (element.getKey().contains(iframe.getKey())) {
+                    for (String frame : iframe.getValue().split(IFRAME_PATH_SEPARATOR)) {
+                        iframePath.add(frame.trim());
+                    }
+                }
+            }
+            frameGroups.computeIfAbsent(iframePath, path -> new LinkedHashMap<>()).put(element.getKey(), element.getValue());
+        }
+        return frameGroups;
+    }
+
 
     /**
      * This function will check if the elements is gone (not present) on the page anymore.
@@ -234,22 +358,31 @@ public abstract class FunctionsPage {
      * @param elementName is used for easier debugging.
      */
     protected void waitIsGone(By by, String elementName) {
-        Instant end = clock.instant().plus(timeout);
-        setTimeoutTo1();
-        for (Instant i = clock.instant(); i.isBefore(end); ) {
-            i = i.plus(refreshPeriod);
-            try {
-                Thread.sleep(500);
-                waitIsPresent(by);
-            } catch (Exception e) {
-                setTimeoutTo10();
-                break;
+        try {
+            waitUntil(absenceOfElementLocated(by), timeout, refreshPeriod);
+        } catch (TimeoutException e) {
+            Assert.fail("Element " + elementName + " with locator: " + by + " is still visible.");
+        }
+    }
+
+    /**
+     * presenceOfElementLocated throws NoSuchElementException once the element is gone, and not() doesn't catch it,
+     * so the absence is checked with findElements, which returns an empty list instead.
+     *
+     * @param by is locator of the element.
+     */
+    private static ExpectedCondition<Boolean> absenceOfElementLocated(By by) {
+        return new ExpectedCondition<Boolean>() {
+            @Override
+            public Boolean apply(WebDriver driver) {
+                return driver.findElements(by).isEmpty();
             }
-            if (i.getEpochSecond() >= end.getEpochSecond()) {
-                Assert.fail("Element " + elementName + " with locator: " + by + " is still visible.");
+
+            @Override
+            public String toString() {
+                return "absence of element located by: " + by;
             }
-        }
-        setTimeoutTo10();
+        };
     }
 
     /**
@@ -260,7 +393,7 @@ public abstract class FunctionsPage {
      */
     protected void switchToIframe(String iFrame) {
         try {
-            driver.switchTo().frame(iFrame);
+            getDriver().switchTo().frame(iFrame);
         } catch (NoSuchFrameException e) {
             Assert.fail("The iFrame " + iFrame + "doesn't exist. Check structure.");
         }
@@ -276,7 +409,7 @@ public abstract class FunctionsPage {
     protected void switchToIframeAndClickElement(String iFrame, By by, String elementName) {
         switchToIframe(iFrame);
         clickElementXpath(by, elementName);
-        driver.switchTo().defaultContent();
+        getDriver().switchTo().defaultContent();
     }
 
     /**
@@ -303,7 +436,7 @@ public abstract class FunctionsPage {
             element.sendKeys(text);
         }
 
-        driver.switchTo().defaultContent();
+        getDriver().switchTo().defaultContent();
     }
 
 
@@ -314,7 +447,7 @@ public abstract class FunctionsPage {
      * @param elementName -> name of the element you want to click.
      */
     protected void clickButtonElementXpathJS(By by, String elementName) {
-        JavascriptExecutor js = (JavascriptExecutor) driver;
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
         WebElement element;
 
         try {
@@ -345,7 +478,7 @@ public abstract class FunctionsPage {
      * @param elementName - name of the element you wish to interact to.
      */
     protected void clickRadioButtonElementXpath(By by, String elementName) {
-        JavascriptExecutor js = (JavascriptExecutor) driver;
+        JavascriptExecutor js = (JavascriptExecutor) getDriver();
 
         WebElement element;
         try {
@@ -620,11 +753,12 @@ public abstract class FunctionsPage {
         return RandomStringUtils.randomNumeric(numNumber);
     }
 
+    /**
+     * @param filePath path to the JSON file that is stored in the project.
+     * @return JSON text of the file. File is read once and shared by all threads, until it's changed.
+     */
     public static String parseJsonFromLocal(String filePath) throws IOException, ParseException {
-        JSONParser parser = new JSONParser();
-        JSONObject data = (JSONObject) parser.parse(
-                new FileReader(filePath));
-        return data.toJSONString();
+        return JsonFixtures.getJson(filePath);
     }
 
     /**
@@ -633,7 +767,7 @@ public abstract class FunctionsPage {
      * @param pathToLocalHTML path to the HTML -> give relative path always
      */
     protected void loadLocalHTMLIntoBrowserThroughURL(String pathToLocalHTML) throws MalformedURLException {
-        driver.get(String.valueOf(new File(pathToLocalHTML).toURI().toURL()));
+        getDriver().get(String.valueOf(new File(pathToLocalHTML).toURI().toURL()));
     }
 
     /**
@@ -663,6 +797,6 @@ public abstract class FunctionsPage {
      * @return object of DevTools
      */
     public static DevTools getDevTools() {
-        return ((ChromeDriver) driver).getDevTools();
+        return ((ChromeDriver) DriverFactory.getDriver()).getDevTools();
     }
 }
@@ -0,0 +1,149 @@
+package setupAndUtilitys.util;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.simple.parser.ParseException;
+import org.skyscreamer.jsonassert.Customization;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.skyscreamer.jsonassert.JSONCompareResult;
+import org.skyscreamer.jsonassert.JSONParser;
+import org.skyscreamer.jsonassert.comparator.CustomComparator;
+import org.skyscreamer.jsonassert.comparator.JSONComparator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JsonFixtures {
+
+    /**
+     * Expected JSON files (fixtures) are read and parsed only once and shared by all threads.
+     * Fixture is read again only when its file is changed. Parsed tree of the fixture is kept as well,
+     * so comparing a response with the fixture parses only the response.
+     *
+     * @fixtures -> map of absolute file path and the fixture read from it.
+     * @treesByJson -> parsed trees of fixtures by their JSON text, so the tree is found also when only the text
+     * (ex. from parseJsonFromLocal) is given for comparison.
+     * @comparators -> STRICT comparators with compiled ignore rules, one per list of ignored paths.
+     */
+    private static final Map<Path, Fixture> fixtures = new ConcurrentHashMap<>();
+    private static final Map<String, Object> treesByJson = new ConcurrentHashMap<>();
+    private static final Map<List<String>, JSONComparator> comparators = new ConcurrentHashMap<>();
+
+    private JsonFixtures() {
+    }
+
+    /**
+     * @param filePath path to the JSON file that is stored in the project.
+     * @return JSON text of the file, in the same format as json-simple writes it.
+     */
+    public static String getJson(String filePath) throws IOException, ParseException {
+        return getFixture(filePath).json;
+    }
+
+    /**
+     * @param ignoredPaths paths of values that are not compared, ex. "[*].id". Can be empty.
+     * @return STRICT comparator that ignores given paths. It's created once for the same paths.
+     */
+    public static JSONComparator comparatorIgnoring(String... ignoredPaths) {
+        return comparators.computeIfAbsent(Arrays.asList(ignoredPaths), paths -> {
+            Customization[] customizations = new Customization[paths.size()];
+            for (int i = 0; i < paths.size(); i++) {
+                customizations[i] = new Customization(paths.get(i), (o1, o2) -> true);
+            }
+            return new CustomComparator(JSONCompareMode.STRICT, customizations);
+        });
+    }
+
+    /**
+     * @param filePath     path to the expected JSON file.
+     * @param actual       JSON that is compared with the file, ex. body of the response.
+     * @param ignoredPaths paths of values that are not compared.
+     * @return result of the comparison, check it with failed() and getMessage().
+     */
+    public static JSONCompareResult compareWithFixture(String filePath, String actual, String... ignoredPaths)
+            throws IOException, ParseException, JSONException {
+        Fixture fixture = getFixture(filePath);
+        return compare(fixture.json, fixture.tree, actual, comparatorIgnoring(ignoredPaths));
+    }
+
+    /**
+     * If expected JSON is the text of a loaded fixture, its already parsed tree is used.
+     *
+     * @param expected     expected JSON text.
+     * @param actual       JSON that is compared with the expected one.
+     * @param ignoredPaths paths of values that are not compared.
+     * @return result of the comparison, check it with failed() and getMessage().
+     */
+    public static JSONCompareResult compare(String expected, String actual, String... ignoredPaths) throws JSONException {
+        return compare(expected, treesByJson.get(expected), actual, comparatorIgnoring(ignoredPaths));
+    }
+
+    private static JSONCompareResult compare(String expectedJson, Object expectedTree, String actual, JSONComparator comparator)
+            throws JSONException {
+        if (expectedTree != null) {
+            Object actualTree = JSONParser.parseJSON(actual);
+            if (expectedTree instanceof JSONObject && actualTree instanceof JSONObject) {
+                return comparator.compareJSON((JSONObject) expectedTree, (JSONObject) actualTree);
+            }
+            if (expectedTree instanceof JSONArray && actualTree instanceof JSONArray) {
+                return comparator.compareJSON((JSONArray) expectedTree, (JSONArray) actualTree);
+            }
+        }
+        return JSONCompare.compareJSON(expectedJson, actual, comparator);
+    }
+
+    private static Fixture getFixture(String filePath) throws IOException, ParseException {
+        Path path = Paths.get(filePath).toAbsolutePath();
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        Fixture fixture = fixtures.get(path);
+        if (fixture != null && fixture.lastModified == lastModified) {
+            return fixture;
+        }
+
+        String json;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            json = ((org.json.simple.JSONObject) new org.json.simple.parser.JSONParser().parse(reader)).toJSONString();
+        }
+        Object tree;
+        try {
+            tree = JSONParser.parseJSON(json);
+        } catch (JSONException e) {
+            tree = null;
+        }
+        Fixture loaded = new Fixture(lastModified, json, tree);
+        Fixture previous = fixtures.put(path, loaded);
+        if (previous != null && !previous.json.equals(json)) {
+            treesByJson.remove(previous.json);
+        }
+        if (tree != null) {
+            treesByJson.put(json, tree);
+        }
+        return loaded;
+    }
+
+    /**
+     * Parsed tree is never changed after it's loaded, comparators only read from it,
+     * so the same tree can be used by parallel threads.
+     */
+    private static class Fixture {
+        private final long lastModified;
+        private final String json;
+        private final Object tree;
+
+        Fixture(long lastModified, String json, Object tree) {
+            this.lastModified = lastModified;
+            this.json = json;
+            this.tree = tree;
+        }
+    }
+}
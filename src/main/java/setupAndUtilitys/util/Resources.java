@@ -11,6 +11,55 @@ public enum Resources {
      * @browser - set in which browser you wish to execute tests.
      * @fakeClientLaravelLogPath - the path to the fake client log from which we are extracting paymentID
      * @stagingAPIConnection - URL used for Billing API connection
+     * @driverPoolMinSize - number of browsers per browser type that are kept started and waiting for scenarios.
+     * @driverPoolMaxSize - maximum number of browsers per browser type that can be alive at the same time.
+     * @driverPoolMaxReuse - after this many scenarios the browser is quit and replaced with a fresh one.
+     * @driverPoolBorrowTimeoutSeconds - how long a scenario waits for a free browser before it fails.
+     * @chromeDriverPath - pinned path to chromedriver binary. If it's set WebDriverManager lookup is skipped.
+     * @firefoxDriverPath - pinned path to geckodriver binary. If it's set WebDriverManager lookup is skipped.
+     * @driverResolutionOffline - set to "true" on agents without internet, pinned driver paths must be set then.
+     * @apiMaxConnections - maximum number of open HTTP connections that API tests share.
+     * @apiMaxConnectionsPerRoute - maximum number of open HTTP connections to one host.
+     * @apiIdleConnectionTimeoutSeconds - connections that are not used for this long are closed.
+     * @apiLogFile - file into which API requests and responses are logged.
+     * @apiLogMaxFileSizeMb - once the API log is bigger than this it's rotated.
+     * @apiLogMaxFiles - how many rotated API log files are kept.
+     * @apiLogMaxRecordLength - one logged request/response longer than this many characters is truncated.
+     * @apiLogBodySampleRate - share of API calls (0.0 - 1.0) logged with headers and body, others only with URI and status.
+     * @apiLogBufferSize - number of log records per thread that can wait for the log writer before they are dropped.
+     * @excelCacheMaxRows - maximum number of Excel rows (of all cached sheets) kept in memory by ExcelReader.
+     * @dbUrl - JDBC URL of the DB, with prepared statement caching turned on. Can be overridden with -Ddb.url.
+     * @dbUser - DB username. Can be overridden with -Ddb.user.
+     * @dbPassword - DB password. Can be overridden with -Ddb.password.
+     * @dbPoolMaxSize - maximum number of open DB connections shared by all threads.
+     * @dbPoolValidateAfterIdleSeconds - connection that was idle for this long is checked before it's used again.
+     * @dbPoolBorrowTimeoutSeconds - how long to wait for a free DB connection before the query fails.
+     * @dbPollTimeoutSeconds - how long DB state is polled by default before the check fails.
+     * @dbPollInitialDelayMillis - wait after the first poll of the DB, it doubles after each poll.
+     * @dbPollMaxDelayMillis - longest wait between two polls of the DB.
+     * @logTailerRingSize - how many last lines of each followed log file are kept in memory.
+     * @logWaitTimeoutSeconds - how long to wait for the searched value to be written to the log file.
+     * @logSearchMode - tail to follow the log and search each line for the value, indexed to look the value up in LogIndex.
+     * @logValueRule - which line around the matching line holds the value and how to cut it out, see RelativeRecordRule.
+     * @logIndexIdPattern - regex that finds the IDs in a log line for LogIndex, every group that matched is an ID.
+     * @logIndexRefreshMillis - how often LogIndex reads what was appended to the log file.
+     * @testRailBatchSize - most results that TestRailPublisher sends in one add_results_for_cases request.
+     * @testRailFlushIntervalSeconds - longest time a result waits in the TestRailPublisher queue before it's sent.
+     * @testRailMaxRetries - how many times request to TestRail is repeated after 429, 5xx or connection error.
+     * @testRailRetryInitialDelayMillis - wait before the first repeat of the request to TestRail, it doubles after each one.
+     * @testRailSpoolFile - file to which results that couldn't be sent to TestRail are written.
+     * @testRailDrainTimeoutSeconds - how long the JVM shutdown waits for queued TestRail results to be sent.
+     * @jiraFilerThreads - how many threads file Jira defects in the background.
+     * @jiraDrainTimeoutSeconds - how long the end of the suite waits for queued Jira defects to be filed.
+     * @screenshotPolicy - failed (screenshot only of failed scenarios), always, or sampled (failed and part of passed ones).
+     * @screenshotSampleRate - part of passed scenarios that get the screenshot with sampled policy.
+     * @screenshotDir - where screenshots are stored.
+     * @screenshotMaxWidth - wider screenshots are scaled down to this width.
+     * @screenshotJpegQuality - JPEG quality of stored screenshots, from 0 to 1.
+     * @screenshotBudgetMb - most MB of screenshots stored in one run, after that screenshots aren't taken.
+     * @screenshotEncodeThreads - how many threads encode screenshots in the background.
+     * @screenshotDrainTimeoutSeconds - how long the end of the suite waits for screenshots to be stored.
+     * @screenshotAttachTimeoutSeconds - how long the end of the scenario waits for its screenshot to be stored and attached.
      */
 
     homePage("URL to your webpage"),
@@ -18,7 +67,56 @@ public enum Resources {
     fakeClientLaravelLogPath("path to the logger file from which you wish to extract value."),
     stagingAPIConnection("url to connect staging"),
     stagingAPIConnectionAdminUsername("username"),
-    stagingAPIConnectionPassword("password");
+    stagingAPIConnectionPassword("password"),
+    driverPoolMinSize("1"),
+    driverPoolMaxSize("5"),
+    driverPoolMaxReuse("20"),
+    driverPoolBorrowTimeoutSeconds("120"),
+    chromeDriverPath(""),
+    firefoxDriverPath(""),
+    driverResolutionOffline("false"),
+    apiMaxConnections("50"),
+    apiMaxConnectionsPerRoute("20"),
+    apiIdleConnectionTimeoutSeconds("30"),
+    apiLogFile("logging.text"),
+    apiLogMaxFileSizeMb("20"),
+    apiLogMaxFiles("5"),
+    apiLogMaxRecordLength("20000"),
+    apiLogBodySampleRate("1.0"),
+    apiLogBufferSize("1024"),
+    excelCacheMaxRows("200000"),
+    dbUrl("jdbc:mysql://localhost:3306/?cachePrepStmts=true&useServerPrepStmts=true&prepStmtCacheSize=50"),
+    dbUser("root"),
+    dbPassword("Start123!"),
+    dbPoolMaxSize("5"),
+    dbPoolValidateAfterIdleSeconds("30"),
+    dbPoolBorrowTimeoutSeconds("30"),
+    dbPollTimeoutSeconds("30"),
+    dbPollInitialDelayMillis("100"),
+    dbPollMaxDelayMillis("2000"),
+    logTailerRingSize("10000"),
+    logWaitTimeoutSeconds("30"),
+    logSearchMode("tail"),
+    logValueRule("-7:12"),
+    logIndexIdPattern("(?i)\\b(?:customer|payment)_?id\\W{1,3}(\\w[\\w-]*)"),
+    logIndexRefreshMillis("200"),
+    testRailBatchSize("50"),
+    testRailFlushIntervalSeconds("5"),
+    testRailMaxRetries("5"),
+    testRailRetryInitialDelayMillis("1000"),
+    testRailSpoolFile("testrail-spool.jsonl"),
+    testRailDrainTimeoutSeconds("30"),
+    jiraFilerThreads("2"),
+    jiraDrainTimeoutSeconds("60"),
+    screenshotPolicy("failed"),
+    screenshotSampleRate("0.1"),
+    screenshotDir("test-output/screenshots/"),
+    screenshotMaxWidth("1280"),
+    screenshotJpegQuality("0.7"),
+    screenshotBudgetMb("200"),
+    screenshotEncodeThreads("2"),
+    screenshotDrainTimeoutSeconds("60"),
+    screenshotAttachTimeoutSeconds("10");
 
 
     private final String resource;
@@ -0,0 +1,261 @@
+package setupAndUtilitys.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+class StreamingExcelReader implements Iterator<ExcelRow>, AutoCloseable {
+
+	/**
+	 * Reads .xlsx sheet row by row from the sheet XML, without loading the workbook into memory.
+	 * Only one row is kept in memory at a time (plus the shared strings of the workbook), so memory doesn't grow
+	 * with the number of rows. Values are formatted the same way as in ExcelReader.getData().
+	 * Rows that are missing between two rows in the sheet are returned with all values empty.
+	 *
+	 * @opcPackage -> opened .xlsx file, closed together with the reader.
+	 * @sheet -> XML of the sheet that is read.
+	 * @header -> header row (first row of the sheet), resolved once.
+	 * @next -> row that will be returned by next(), null if it's not read yet.
+	 */
+	private final OPCPackage opcPackage;
+	private final InputStream sheetData;
+	private final XMLStreamReader sheet;
+	private final ReadOnlySharedStringsTable sharedStrings;
+	private ExcelRow.Header header;
+	private ExcelRow next;
+	private ExcelRow afterGap;
+	private int lastRowNumber = -1;
+	private boolean finished;
+
+	private StreamingExcelReader(OPCPackage opcPackage, InputStream sheetData, ReadOnlySharedStringsTable sharedStrings)
+			throws XMLStreamException {
+		this.opcPackage = opcPackage;
+		this.sheetData = sheetData;
+		this.sharedStrings = sharedStrings;
+		this.sheet = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheetData);
+	}
+
+	/**
+	 * @param excelFilePath path to the .xlsx file.
+	 * @param sheetName     name of the sheet, or null if sheetNumber should be used.
+	 * @param sheetNumber   index of the sheet, starting with 0.
+	 * @return reader positioned after the header row.
+	 */
+	static StreamingExcelReader open(String excelFilePath, String sheetName, int sheetNumber) throws IOException {
+		OPCPackage opcPackage = null;
+		try {
+			opcPackage = OPCPackage.open(new File(excelFilePath), PackageAccess.READ);
+			XSSFReader xssfReader = new XSSFReader(opcPackage);
+			ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+			XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+			for (int index = 0; sheets.hasNext(); index++) {
+				InputStream sheetData = sheets.next();
+				if (sheetName == null ? index == sheetNumber : sheetName.equals(sheets.getSheetName())) {
+					StreamingExcelReader reader = new StreamingExcelReader(opcPackage, sheetData, sharedStrings);
+					reader.readHeader();
+					return reader;
+				}
+				sheetData.close();
+			}
+			throw new IllegalArgumentException("There is no sheet " + (sheetName == null ? sheetNumber : sheetName)
+					+ " in " + excelFilePath);
+		} catch (OpenXML4JException | SAXException | XMLStreamException | RuntimeException e) {
+			if (opcPackage != null) {
+				opcPackage.revert();
+			}
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new IOException("Unable to read " + excelFilePath + ": " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null && !finished) {
+			next = readRow();
+		}
+		return next != null;
+	}
+
+	@Override
+	public ExcelRow next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ExcelRow row = next;
+		next = null;
+		return row;
+	}
+
+	@Override
+	public void close() {
+		finished = true;
+		try {
+			sheet.close();
+			sheetData.close();
+		} catch (XMLStreamException | IOException e) {
+			// nothing to do, package is reverted anyway
+		} finally {
+			opcPackage.revert();
+		}
+	}
+
+	private void readHeader() throws XMLStreamException {
+		TreeMap<Integer, String> columns = new TreeMap<>();
+		String[] values = nextRowValues();
+		if (values != null) {
+			for (int column = 0; column < values.length; column++) {
+				if (values[column] != null && !values[column].isEmpty()) {
+					columns.put(column, values[column]);
+				}
+			}
+		}
+		header = new ExcelRow.Header(columns);
+	}
+
+	/**
+	 * @return next data row, a row with empty values if there is a gap in row numbers, or null at the end of the sheet.
+	 */
+	private ExcelRow readRow() {
+		if (afterGap != null) {
+			if (afterGap.getRowNumber() > lastRowNumber + 1) {
+				return emptyRow(++lastRowNumber);
+			}
+			ExcelRow row = afterGap;
+			afterGap = null;
+			lastRowNumber = row.getRowNumber();
+			return row;
+		}
+		try {
+			int previousRowNumber = lastRowNumber;
+			String[] sheetValues = nextRowValues();
+			if (sheetValues == null) {
+				finished = true;
+				return null;
+			}
+			String[] values = new String[header.size()];
+			Arrays.fill(values, "");
+			for (int column = 0; column < sheetValues.length; column++) {
+				int position = header.positionOf(column);
+				if (position >= 0 && sheetValues[column] != null) {
+					values[position] = sheetValues[column];
+				}
+			}
+			ExcelRow row = new ExcelRow(header, lastRowNumber, values);
+			if (lastRowNumber > previousRowNumber + 1) {
+				afterGap = row;
+				lastRowNumber = previousRowNumber + 1;
+				return emptyRow(lastRowNumber);
+			}
+			return row;
+		} catch (XMLStreamException e) {
+			throw new UncheckedIOException(new IOException("Unable to read the sheet: " + e.getMessage(), e));
+		}
+	}
+
+	private ExcelRow emptyRow(int rowNumber) {
+		String[] values = new String[header.size()];
+		Arrays.fill(values, "");
+		return new ExcelRow(header, rowNumber, values);
+	}
+
+	/**
+	 * Moves to the next row element of the sheet and reads all its cells.
+	 *
+	 * @return values of the row by the sheet column index (null where there is no cell), or null if there are no more rows.
+	 */
+	private String[] nextRowValues() throws XMLStreamException {
+		while (sheet.hasNext()) {
+			if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+				String rowReference = sheet.getAttributeValue(null, "r");
+				lastRowNumber = rowReference == null ? lastRowNumber + 1 : Integer.parseInt(rowReference) - 1;
+				return readCells();
+			}
+		}
+		return null;
+	}
+
+	private String[] readCells() throws XMLStreamException {
+		String[] values = new String[Math.max(header == null ? 16 : header.size(), 1)];
+		int column = -1;
+		while (sheet.hasNext()) {
+			int event = sheet.next();
+			if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheet.getLocalName())) {
+				return values;
+			}
+			if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheet.getLocalName())) {
+				String cellReference = sheet.getAttributeValue(null, "r");
+				column = cellReference == null ? column + 1 : new CellReference(cellReference).getCol();
+				String type = sheet.getAttributeValue(null, "t");
+				String value = readCellValue(type);
+				if (column >= values.length) {
+					values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+				}
+				values[column] = value;
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Reads the cell until its end element and converts the value like ExcelReader.getCellValue() does:
+	 * numbers with NumberToTextConverter, booleans as true/false and errors as their error code.
+	 * Formulas are returned with their cached value.
+	 */
+	private String readCellValue(String type) throws XMLStreamException {
+		StringBuilder value = new StringBuilder();
+		boolean inValue = false;
+		while (sheet.hasNext()) {
+			int event = sheet.next();
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				String name = sheet.getLocalName();
+				inValue = "v".equals(name) || "t".equals(name);
+			} else if (event == XMLStreamConstants.END_ELEMENT) {
+				if ("c".equals(sheet.getLocalName())) {
+					break;
+				}
+				inValue = false;
+			} else if (inValue && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+				value.append(sheet.getText());
+			}
+		}
+
+		String text = value.toString();
+		if (text.isEmpty()) {
+			return "";
+		}
+		if (type == null || "n".equals(type)) {
+			return NumberToTextConverter.toText(Double.parseDouble(text));
+		}
+		switch (type) {
+			case "s":
+				return sharedStrings.getItemAt(Integer.parseInt(text)).getString();
+			case "b":
+				return Boolean.toString("1".equals(text));
+			case "e":
+				return Byte.toString(FormulaError.forString(text).getCode());
+			default:
+				return text;
+		}
+	}
+}
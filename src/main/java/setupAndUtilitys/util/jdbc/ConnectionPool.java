@@ -0,0 +1,206 @@
+package setupAndUtilitys.util.jdbc;
+
+import setupAndUtilitys.util.Resources;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+public class ConnectionPool {
+
+    /**
+     * Small pool of DB connections shared by all threads, so queries don't pay for TCP connect and DB login every time.
+     * Borrowed connection is returned to the pool when it's closed, so it's used with try-with-resources as before.
+     * Prepared statements are cached by the driver per connection (cachePrepStmts/useServerPrepStmts in the MySQL URL),
+     * so the same query is prepared on the server only once per pooled connection.
+     * URL, user and password can be overridden with db.url, db.user and db.password system properties,
+     * ex. to run against in-memory H2 database with -P LocalDB.
+     *
+     * @url -> JDBC URL of the DB.
+     * @maxSize -> maximum number of open connections.
+     * @validateAfterIdle -> connection that wasn't used for this long (ms) is checked with isValid() before it's given out.
+     * @borrowTimeout -> how long (ms) to wait for a free connection before SQLException is thrown.
+     * @idle -> connections that are open and not borrowed.
+     * @open -> number of open connections, borrowed and idle.
+     */
+    private static final String url = System.getProperty("db.url", Resources.dbUrl.getResource());
+    private static final String user = System.getProperty("db.user", Resources.dbUser.getResource());
+    private static final String password = System.getProperty("db.password", Resources.dbPassword.getResource());
+    private static final int maxSize = Integer.parseInt(Resources.dbPoolMaxSize.getResource());
+    private static final long validateAfterIdle = TimeUnit.SECONDS.toMillis(Long.parseLong(Resources.dbPoolValidateAfterIdleSeconds.getResource()));
+    private static final long borrowTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(Resources.dbPoolBorrowTimeoutSeconds.getResource()));
+
+    private static final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private static int open;
+    private static boolean closed;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConnectionPool::closeAll, "db-pool-shutdown"));
+    }
+
+    private ConnectionPool() {
+    }
+
+    /**
+     * @return valid connection. Closing it gives it back to the pool instead of closing the physical connection.
+     */
+    public static Connection getConnection() throws SQLException {
+        long deadline = System.currentTimeMillis() + borrowTimeout;
+        while (true) {
+            PooledConnection pooled;
+            synchronized (ConnectionPool.class) {
+                checkNotClosed();
+                while (idle.isEmpty() && open >= maxSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new SQLException("No free DB connection after " + borrowTimeout + " ms, all " + maxSize + " are in use.");
+                    }
+                    try {
+                        ConnectionPool.class.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for DB connection.", e);
+                    }
+                    checkNotClosed();
+                }
+                pooled = idle.pollFirst();
+                if (pooled == null) {
+                    open++;
+                }
+            }
+
+            if (pooled == null) {
+                try {
+                    return new PooledConnection(DriverManager.getConnection(url, user, password)).borrow();
+                } catch (SQLException | RuntimeException e) {
+                    discarded();
+                    throw e;
+                }
+            }
+            if (isValid(pooled)) {
+                return pooled.borrow();
+            }
+            closeQuietly(pooled.connection);
+            discarded();
+        }
+    }
+
+    /**
+     * Close all idle connections. Borrowed connections are closed once they are returned.
+     */
+    public static synchronized void closeAll() {
+        closed = true;
+        for (PooledConnection pooled : idle) {
+            closeQuietly(pooled.connection);
+            open--;
+        }
+        idle.clear();
+        ConnectionPool.class.notifyAll();
+    }
+
+    /**
+     * After closeAll() (ex. from the shutdown hook) new connections aren't opened, because nothing would close them.
+     */
+    private static void checkNotClosed() throws SQLException {
+        if (closed) {
+            throw new SQLException("DB connection pool is closed.");
+        }
+    }
+
+    private static boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsed < validateAfterIdle) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void release(PooledConnection pooled) {
+        try {
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.connection);
+            discarded();
+            return;
+        }
+        pooled.lastUsed = System.currentTimeMillis();
+        synchronized (ConnectionPool.class) {
+            if (!closed) {
+                idle.addFirst(pooled);
+                ConnectionPool.class.notifyAll();
+                return;
+            }
+        }
+        closeQuietly(pooled.connection);
+        discarded();
+    }
+
+    private static synchronized void discarded() {
+        open--;
+        ConnectionPool.class.notifyAll();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Physical connection and the proxy that is given to the caller. Each borrow gets a new proxy,
+     * so a connection that was already returned can't be used by mistake.
+     */
+    private static class PooledConnection {
+        private final Connection connection;
+        private long lastUsed = System.currentTimeMillis();
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection borrow() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean returned;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned) {
+                                returned = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned || connection.isClosed();
+                        default:
+                            if (returned) {
+                                throw new SQLException("Connection was already returned to the pool.");
+                            }
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package setupAndUtilitys.util.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+public class DBPoller {
+
+    /**
+     * Runs the same prepared query again and again until its result is as expected or the deadline passes.
+     * It's used instead of fixed sleeps when the DB is written asynchronously, so the step waits only as long as needed.
+     * Whole poll uses one pooled connection and one prepared statement. Wait between attempts starts with
+     * initialDelay and doubles after each attempt, up to maxDelay.
+     *
+     * @defaultTimeout -> how long to poll when the caller doesn't give the timeout.
+     * @initialDelay -> wait after the first attempt.
+     * @maxDelay -> longest wait between two attempts.
+     */
+    public static final Duration defaultTimeout = Duration.ofSeconds(Long.parseLong(Resources.dbPollTimeoutSeconds.getResource()));
+    private static final Duration initialDelay = Duration.ofMillis(Long.parseLong(Resources.dbPollInitialDelayMillis.getResource()));
+    private static final Duration maxDelay = Duration.ofMillis(Long.parseLong(Resources.dbPollMaxDelayMillis.getResource()));
+
+    private static final Logger logger = LoggerFactory.getLogger(DBPoller.class);
+
+    private DBPoller() {
+    }
+
+    /**
+     * Sets the parameters of the prepared statement.
+     */
+    public interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Reads the result of one attempt.
+     */
+    public interface ResultReader<T> {
+        T read(ResultSet resultSet) throws SQLException;
+    }
+
+    /**
+     * @param sql     query that is executed on every attempt.
+     * @param binder  sets the parameters of the query.
+     * @param reader  reads the result of the query.
+     * @param until   condition that the result has to meet.
+     * @param timeout how long to poll before giving up.
+     * @return last result, if it met the condition, number of attempts and how long polling took.
+     */
+    public static <T> PollResult<T> poll(String sql, StatementBinder binder, ResultReader<T> reader, Predicate<T> until,
+                                         Duration timeout) throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        Duration delay = initialDelay;
+        int attempts = 0;
+
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            while (true) {
+                attempts++;
+                T value;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    value = reader.read(resultSet);
+                }
+                boolean satisfied = until.test(value);
+                long now = System.nanoTime();
+                if (satisfied || now >= deadline) {
+                    PollResult<T> result = new PollResult<>(value, satisfied, attempts, Duration.ofNanos(now - start));
+                    logger.debug("{}", result);
+                    return result;
+                }
+                sleep(Math.min(delay.toNanos(), deadline - now));
+                delay = delay.multipliedBy(2).compareTo(maxDelay) > 0 ? maxDelay : delay.multipliedBy(2);
+            }
+        }
+    }
+
+    private static void sleep(long nanos) throws SQLException {
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while polling the DB.", e);
+        }
+    }
+
+    public static class PollResult<T> {
+        private final T value;
+        private final boolean satisfied;
+        private final int attempts;
+        private final Duration elapsed;
+
+        PollResult(T value, boolean satisfied, int attempts, Duration elapsed) {
+            this.value = value;
+            this.satisfied = satisfied;
+            this.attempts = attempts;
+            this.elapsed = elapsed;
+        }
+
+        /**
+         * @return result of the last attempt.
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return true if the result met the condition before the deadline.
+         */
+        public boolean isSatisfied() {
+            return satisfied;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return (satisfied ? "Converged" : "Didn't converge") + " after " + attempts + " attempts in "
+                    + elapsed.toMillis() + " ms";
+        }
+    }
+}
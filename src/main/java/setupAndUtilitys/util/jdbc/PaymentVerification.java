@@ -0,0 +1,72 @@
+package setupAndUtilitys.util.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PaymentVerification {
+
+    /**
+     * Everything that is needed to verify one payment, read with one query.
+     *
+     * @paymentReference -> reference of the payment that was searched for.
+     * @paymentId -> ID of the payment, null if there is no payment with that reference.
+     * @subscriptionId -> ID of the subscription that was created with the payment, null if it wasn't created.
+     * @transactionTypes -> types of all transactions of the payment, ex. authorize, capture.
+     */
+    private final String paymentReference;
+    private String paymentId;
+    private String subscriptionId;
+    private final List<String> transactionTypes = new ArrayList<>();
+
+    PaymentVerification(String paymentReference) {
+        this.paymentReference = paymentReference;
+    }
+
+    /**
+     * If there are more payments with the same reference, the last one is used.
+     */
+    void setPayment(String paymentId, String subscriptionId) {
+        if (!paymentId.equals(this.paymentId)) {
+            this.paymentId = paymentId;
+            this.subscriptionId = subscriptionId;
+            transactionTypes.clear();
+        }
+    }
+
+    void addTransactionType(String transactionType) {
+        if (transactionType != null) {
+            transactionTypes.add(transactionType);
+        }
+    }
+
+    public String getPaymentReference() {
+        return paymentReference;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public List<String> getTransactionTypes() {
+        return Collections.unmodifiableList(transactionTypes);
+    }
+
+    public boolean isPaymentFound() {
+        return paymentId != null;
+    }
+
+    public boolean isSubscriptionCreated() {
+        return subscriptionId != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Payment " + paymentReference + " -> id: " + paymentId + ", subscription: " + subscriptionId
+                + ", transactions: " + transactionTypes;
+    }
+}
@@ -1,94 +1,244 @@
 package setupAndUtilitys.util.jdbc;
 
 import org.testng.Assert;
+import org.testng.asserts.SoftAssert;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ReadFromDB {
 
     /**
-     * @DB_URL -> This is used to point to the location of the DB with which you want to interact.
-     * @USER - > Username for the DB.
-     * @PASS -> Password for the DB.
+     * Connections are borrowed from ConnectionPool (URL, user and password are in Resources)
+     * and all queries are prepared statements, so values are never concatenated into SQL.
+     *
+     * @PAYMENT_VERIFICATION -> payment, its subscription and all its transactions are read with one query.
+     * Subscription is the subscription_id column of the payment, so no separate lookup is needed.
+     * @MAX_REFERENCES_PER_QUERY -> batch verification splits references into IN (...) lists of at most this size.
+     * @queuedTransactionChecks -> checks that are verified together with verifyQueuedTransactionChecks().
      */
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/";
-    private static final String USER = "root";
-    private static final String PASS = "Start123!";
-    private static String referenceID;
-    private static String subscriptionID;
+    private static final String PAYMENT_VERIFICATION = "SELECT p.reference, p.id, p.subscription_id, t.type "
+            + "FROM payments p LEFT JOIN transactions t ON t.payment_id = p.id "
+            + "WHERE p.reference IN (%s) ORDER BY p.reference, p.id, t.id";
+    private static final String BILLING_REFERENCE_BY_CLIENT = "SELECT reference FROM billing_plans WHERE client_id = ?";
+    private static final int MAX_REFERENCES_PER_QUERY = 500;
+    private static final Queue<String[]> queuedTransactionChecks = new ConcurrentLinkedQueue<>();
 
     /**
-     * @param type      refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
-     * @param paymentID is the used to filter out the row from which you wish to extract in this case referenceID
+     * @param paymentReference reference of the payment.
+     * @return payment with its subscription and transactions. If the payment doesn't exist isPaymentFound() is false.
      */
-    public static void checkTransactions(String type, String paymentID) {
-        try (Connection conn = DriverManager.getConnection(DB_URL, USER, PASS);
-             Statement statement = conn.createStatement();
-             ResultSet resultPayment = statement.executeQuery("SELECT * FROM payments WHERE reference = '" + paymentID + "'")) {
+    public static PaymentVerification verifyPayment(String paymentReference) throws SQLException {
+        return verifyPayments(Collections.singletonList(paymentReference)).get(paymentReference);
+    }
 
-            while (resultPayment.next()) {
-                referenceID = resultPayment.getString("id");
+    /**
+     * All payments are read with one query per MAX_REFERENCES_PER_QUERY references, over one borrowed connection.
+     *
+     * @param paymentReferences references of the payments.
+     * @return map of reference and its payment, in the same order as given references.
+     */
+    public static Map<String, PaymentVerification> verifyPayments(Collection<String> paymentReferences) throws SQLException {
+        Map<String, PaymentVerification> verifications = new LinkedHashMap<>();
+        for (String paymentReference : paymentReferences) {
+            verifications.put(paymentReference, new PaymentVerification(paymentReference));
+        }
+        List<String> references = new ArrayList<>(verifications.keySet());
+
+        try (Connection connection = ConnectionPool.getConnection()) {
+            for (int from = 0; from < references.size(); from += MAX_REFERENCES_PER_QUERY) {
+                List<String> batch = references.subList(from, Math.min(from + MAX_REFERENCES_PER_QUERY, references.size()));
+                String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+                try (PreparedStatement statement = connection.prepareStatement(String.format(PAYMENT_VERIFICATION, placeholders))) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        statement.setString(i + 1, batch.get(i));
+                    }
+                    try (ResultSet result = statement.executeQuery()) {
+                        readVerifications(result, verifications);
+                    }
+                }
             }
-            checkTransactionStatus(type);
+        }
+        return verifications;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private static void readVerifications(ResultSet result, Map<String, PaymentVerification> verifications) throws SQLException {
+        while (result.next()) {
+            PaymentVerification verification = verifications.get(result.getString("reference"));
+            verification.setPayment(result.getString("id"), result.getString("subscription_id"));
+            verification.addTransactionType(result.getString("type"));
         }
     }
 
     /**
-     * @param type refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
+     * Reads the payment again and again (see DBPoller) until the condition is met or the timeout passes.
+     *
+     * @param paymentReference reference of the payment.
+     * @param until            condition that the payment has to meet.
+     * @param timeout          how long to wait for the condition.
+     * @return last read payment, number of attempts and how long it took.
      */
-    private static void checkTransactionStatus(String type) {
-        String QUERYTransactions = "SELECT * FROM transactions WHERE payment_id = '" + referenceID + "'";
-        try (Connection connection = DriverManager.getConnection(DB_URL, USER, PASS);
-             Statement statement = connection.createStatement();
-             ResultSet transactionsResult = statement.executeQuery(QUERYTransactions)) {
-
-            List<String> transactionTypeList = new ArrayList<>();
-            while (transactionsResult.next()) {
-                transactionTypeList.add(transactionsResult.getString("type"));
+    public static DBPoller.PollResult<PaymentVerification> pollPayment(String paymentReference, Predicate<PaymentVerification> until,
+                                                                       Duration timeout) throws SQLException {
+        return DBPoller.poll(String.format(PAYMENT_VERIFICATION, "?"),
+                statement -> statement.setString(1, paymentReference),
+                result -> {
+                    Map<String, PaymentVerification> verifications = new LinkedHashMap<>();
+                    verifications.put(paymentReference, new PaymentVerification(paymentReference));
+                    readVerifications(result, verifications);
+                    return verifications.get(paymentReference);
+                },
+                until, timeout);
+    }
+
+    /**
+     * Use this instead of checkTransactions() with a sleep before it, when transactions are written asynchronously.
+     * It fails only if transactions are still not as expected after the timeout.
+     *
+     * @param type      refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
+     * @param paymentID is the used to filter out the payment whose transactions are checked.
+     * @param timeout   how long to wait for transactions.
+     * @return result of polling, with number of attempts and how long it took.
+     */
+    public static DBPoller.PollResult<PaymentVerification> waitForTransactions(String type, String paymentID, Duration timeout) {
+        DBPoller.PollResult<PaymentVerification> result = null;
+        try {
+            result = pollPayment(paymentID, payment -> transactionStatusProblem(type, payment.getTransactionTypes()) == null, timeout);
+            if (!result.isSatisfied()) {
+                Assert.fail(transactionStatusProblem(type, result.getValue().getTransactionTypes()) + " " + result + ".");
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    public static DBPoller.PollResult<PaymentVerification> waitForTransactions(String type, String paymentID) {
+        return waitForTransactions(type, paymentID, DBPoller.defaultTimeout);
+    }
 
-            switch (type) {
-                case "successful":
-                    checkForSuccessfulStatus(transactionTypeList);
-                    break;
-                case "incomplete":
-                    checkForIncompleteStatus(transactionTypeList);
-                    break;
-                default:
-                    break;
+    /**
+     * @param state     true if subscription should be created, false if the payment should be without subscription.
+     * @param paymentID is the used to filter out the payment from which subscriptionID is extracted.
+     * @param timeout   how long to wait for the payment to be in expected state.
+     * @return result of polling, with number of attempts and how long it took.
+     */
+    public static DBPoller.PollResult<PaymentVerification> waitForSubscription(Boolean state, String paymentID, Duration timeout) {
+        DBPoller.PollResult<PaymentVerification> result = null;
+        try {
+            result = pollPayment(paymentID, payment -> payment.isPaymentFound() && payment.isSubscriptionCreated() == state, timeout);
+            if (!result.isSatisfied()) {
+                Assert.fail((state ? "The subscription is not created but it should be" : "The subscription is created but it shouldn't be")
+                        + ", payment: " + result.getValue() + ". " + result + ".");
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
 
+    public static DBPoller.PollResult<PaymentVerification> waitForSubscription(Boolean state, String paymentID) {
+        return waitForSubscription(state, paymentID, DBPoller.defaultTimeout);
+    }
 
+    /**
+     * @param type      refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
+     * @param paymentID is the used to filter out the payment whose transactions are checked.
+     */
+    public static void checkTransactions(String type, String paymentID) {
+        try {
+            String problem = transactionStatusProblem(type, verifyPayment(paymentID).getTransactionTypes());
+            if (problem != null) {
+                Assert.fail(problem);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Use this instead of checkTransactions() when the transactions don't have to be checked right away.
+     * All queued checks are verified with one query at the end of the suite.
+     *
+     * @param type      refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
+     * @param paymentID is the used to filter out the payment whose transactions are checked.
+     */
+    public static void queueTransactionCheck(String type, String paymentID) {
+        queuedTransactionChecks.add(new String[]{type, paymentID});
+    }
+
+    /**
+     * Verifies all checks that were queued with queueTransactionCheck() and reports all failed payments together.
+     */
+    public static void verifyQueuedTransactionChecks() throws SQLException {
+        List<String[]> checks = new ArrayList<>();
+        String[] check;
+        while ((check = queuedTransactionChecks.poll()) != null) {
+            checks.add(check);
+        }
+        if (checks.isEmpty()) {
+            return;
+        }
+
+        Collection<String> references = checks.stream().map(queued -> queued[1]).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<String, PaymentVerification> verifications = verifyPayments(references);
+        SoftAssert softAssert = new SoftAssert();
+        for (String[] queued : checks) {
+            String problem = transactionStatusProblem(queued[0], verifications.get(queued[1]).getTransactionTypes());
+            if (problem != null) {
+                softAssert.fail("Payment " + queued[1] + ": " + problem);
+            }
+        }
+        softAssert.assertAll();
+    }
+
+    /**
+     * @param type                refers to the type of the Transaction you wish to check. Ex. Successful, Incomplete...etc...
+     * @param transactionTypeList types of all transactions of the payment.
+     * @return description of the problem, or null if transactions are as expected.
+     */
+    private static String transactionStatusProblem(String type, List<String> transactionTypeList) {
+        switch (type) {
+            case "successful":
+                return checkForSuccessfulStatus(transactionTypeList);
+            case "incomplete":
+                return checkForIncompleteStatus(transactionTypeList);
+            default:
+                return null;
+        }
+    }
+
     /**
      * @param transactionTypeList based on this we do our checks.
      *                            We will first check size od of the list and then all elements of the list.
      *                            For each element we know what to expect depending on the state of the transaction.
      */
-    private static void checkForSuccessfulStatus(List<String> transactionTypeList) {
+    private static String checkForSuccessfulStatus(List<String> transactionTypeList) {
         if (transactionTypeList.size() == 2) {
             boolean auth = transactionTypeList.stream().anyMatch(str -> str.equals("authorize"));
             boolean capt = transactionTypeList.stream().anyMatch(str -> str.equals("capture"));
             if (auth) {
                 if (!capt) {
-                    Assert.fail("Capture wasn't triggered.");
+                    return "Capture wasn't triggered.";
                 }
             } else {
-                Assert.fail("Authorize wasn't triggered.");
+                return "Authorize wasn't triggered.";
             }
         } else {
-            Assert.fail("The transaction should have two types, instead it has: " + transactionTypeList.size() + " | " + transactionTypeList.stream().map(Object::toString).collect(Collectors.joining(" and ")));
+            return "The transaction should have two types, instead it has: " + transactionTypeList.size() + " | " + transactionTypeList.stream().map(Object::toString).collect(Collectors.joining(" and "));
         }
+        return null;
     }
 
     /**
@@ -96,57 +246,42 @@ public class ReadFromDB {
      *                            We will first check size od of the list and then all elements of the list.
      *                            For each element we know what to expect depending on the state of the transaction.
      */
-    private static void checkForIncompleteStatus(List<String> transactionTypeList) {
+    private static String checkForIncompleteStatus(List<String> transactionTypeList) {
         if (transactionTypeList.size() == 1) {
             boolean auth = transactionTypeList.stream().anyMatch(str -> str.equals("authorize"));
             if (!auth) {
-                Assert.fail("Authorize wasn't triggered.");
+                return "Authorize wasn't triggered.";
             }
         } else {
-            Assert.fail("The transaction should have only one type but it has: " + transactionTypeList.size() + " | " + transactionTypeList.stream().map(Object::toString).collect(Collectors.joining(" and ")));
+            return "The transaction should have only one type but it has: " + transactionTypeList.size() + " | " + transactionTypeList.stream().map(Object::toString).collect(Collectors.joining(" and "));
         }
+        return null;
     }
 
     /**
      * @param state     this is used to determine which state to check, if the sub should be created or not.
-     * @param paymentID is the used to filter out the row from which you wish to extract in this case referenceID
+     * @param paymentID is the used to filter out the payment from which subscriptionID is extracted.
      */
     public static void checkIfSubscriptionIsCreated(Boolean state, String paymentID) {
-        try (Connection connection = DriverManager.getConnection(DB_URL, USER, PASS);
-             Statement statement = connection.createStatement();
-             ResultSet resultPayment = statement.executeQuery("SELECT * FROM payments WHERE reference = '" + paymentID + "'")) {
-
-            iterateThroughPaymentResults(state, resultPayment);
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * @param state         this is used to determine which state to check, if the sub should be created or not.
-     * @param resultPayment this is the row which was selected by reference. It is used to iterate through in order to extract subscriptionID.
-     * @throws SQLException this is because we're using .next() that reads from next row in the table.
-     */
-    private static void iterateThroughPaymentResults(Boolean state, ResultSet resultPayment) throws SQLException {
-
-        while (resultPayment.next()) {
-
-            subscriptionID = resultPayment.getString("subscription_id");
-
+        try {
+            PaymentVerification verification = verifyPayment(paymentID);
+            if (!verification.isPaymentFound()) {
+                return;
+            }
             if (state) {
-                checkCreatedSubscription();
-
+                checkCreatedSubscription(verification.getSubscriptionId());
             } else {
-                confirmThatSubscriptionIsNotCreated();
+                confirmThatSubscriptionIsNotCreated(verification.getSubscriptionId());
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
     }
 
     /**
      * In this case sub should be created, and we are checking if the field == null, if yes, we are failing this step.
      */
-    private static void checkCreatedSubscription() {
+    private static void checkCreatedSubscription(String subscriptionID) {
         if (subscriptionID == null) {
             Assert.fail("The subscription is not created but it should be, and subscriptionID is null");
         }
@@ -155,7 +290,7 @@ public class ReadFromDB {
     /**
      * In this case sub shouldn't be created, and we are checking if the field != null, if yes, we are failing this step.
      */
-    private static void confirmThatSubscriptionIsNotCreated() {
+    private static void confirmThatSubscriptionIsNotCreated(String subscriptionID) {
         if (subscriptionID != null) {
             Assert.fail("The subscription is created but it shouldn't be, and subscriptionID is: " + subscriptionID);
 
@@ -165,12 +300,13 @@ public class ReadFromDB {
     public static String extractBillingPlanReference(String clientID) {
 
         String billingReference = null;
-        String QUERYBilling = "SELECT * FROM billing_plans WHERE client_id = '" + clientID + "'";
-        try (Connection connection = DriverManager.getConnection(DB_URL, USER, PASS);
-             Statement statement = connection.createStatement();
-             ResultSet billingResult = statement.executeQuery(QUERYBilling)) {
-            while (billingResult.next()) {
-                billingReference = billingResult.getString("reference");
+        try (Connection connection = ConnectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(BILLING_REFERENCE_BY_CLIENT)) {
+            statement.setString(1, clientID);
+            try (ResultSet billingResult = statement.executeQuery()) {
+                while (billingResult.next()) {
+                    billingReference = billingResult.getString("reference");
+                }
             }
 
             return billingReference;
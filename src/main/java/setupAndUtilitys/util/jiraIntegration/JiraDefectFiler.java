@@ -0,0 +1,144 @@
+package setupAndUtilitys.util.jiraIntegration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+public class JiraDefectFiler {
+
+    /**
+     * Files Jira defects for failed scenarios in the background, so the test thread doesn't wait on Jira.
+     * Each worker thread has its own JiraIntegration with its own session, authenticated once.
+     * Failures are de-duplicated by fingerprint (scenario + error message without numbers, IDs and extra whitespace),
+     * so the same failure repeated in one run opens only one issue. Attachments are uploaded after the issue is created,
+     * on the same worker threads.
+     *
+     * @executor -> worker threads that talk to Jira, from jiraFilerThreads.
+     * @jiraSessions -> authenticated JiraIntegration of each worker thread.
+     * @issuesByFingerprint -> issue (or issue that is being created) for each failure fingerprint.
+     * @duplicates -> how many failures were skipped because the same failure was already filed.
+     * @volatileParts -> parts of the error message that change between runs of the same failure.
+     */
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            Integer.parseInt(Resources.jiraFilerThreads.getResource()), runnable -> {
+                Thread thread = new Thread(runnable, "jira-defect-filer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final ThreadLocal<JiraIntegration> jiraSessions = ThreadLocal.withInitial(() -> {
+        JiraIntegration jiraIntegration = new JiraIntegration();
+        jiraIntegration.jiraAuthentication();
+        return jiraIntegration;
+    });
+    private static final Map<String, CompletableFuture<String>> issuesByFingerprint = new ConcurrentHashMap<>();
+    private static final List<CompletableFuture<?>> attachmentUploads = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicInteger duplicates = new AtomicInteger();
+    private static final Pattern volatileParts = Pattern.compile(
+            "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}|0x[0-9a-f]+|@[0-9a-f]{4,}|\\d+");
+    private static final Logger logger = LoggerFactory.getLogger(JiraDefectFiler.class);
+
+    private JiraDefectFiler() {
+    }
+
+    /**
+     * Queues the defect and returns immediately.
+     *
+     * @param summary     summary of the issue, scenario name.
+     * @param description error message of the failure.
+     * @param steps       steps to reproduce.
+     * @param attachments paths to files (ex. screenshots) that are uploaded to the issue once it's created.
+     * @return future with the id of the issue, the same future for failures with the same fingerprint.
+     */
+    public static CompletableFuture<String> file(String summary, String description, String steps, String... attachments) {
+        String fingerprint = fingerprint(summary, description);
+        CompletableFuture<String> issue = issuesByFingerprint.get(fingerprint);
+        if (issue != null) {
+            duplicates.incrementAndGet();
+            logger.info("Same failure of \"{}\" was already filed, new issue isn't created.", summary);
+            return issue;
+        }
+
+        CompletableFuture<String> created = new CompletableFuture<>();
+        issue = issuesByFingerprint.putIfAbsent(fingerprint, created);
+        if (issue != null) {
+            duplicates.incrementAndGet();
+            return issue;
+        }
+        CompletableFuture.supplyAsync(() -> jiraSessions.get().createJiraIssue(summary, description, steps), executor)
+                .whenComplete((issueId, e) -> {
+                    if (e != null) {
+                        logger.warn("Unable to file defect for \"{}\": {}", summary, e.toString());
+                        created.completeExceptionally(e);
+                    } else {
+                        created.complete(issueId);
+                    }
+                });
+
+        for (String attachment : attachments) {
+            attachmentUploads.add(created.thenAcceptAsync(
+                    issueId -> jiraSessions.get().addAttachmentToTheIssue(attachment, issueId), executor));
+        }
+        return created;
+    }
+
+    /**
+     * Waits until all queued defects and attachments are sent to Jira.
+     *
+     * @param timeout how long to wait.
+     */
+    public static void drain(Duration timeout) {
+        List<CompletableFuture<?>> all = new ArrayList<>(issuesByFingerprint.values());
+        synchronized (attachmentUploads) {
+            all.addAll(attachmentUploads);
+        }
+        try {
+            CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Failed requests were already logged, the rest are done.
+        } catch (TimeoutException e) {
+            logger.warn("Not all Jira defects were filed in {}.", timeout);
+        }
+        logger.info("Distinct failures sent to Jira: {}, duplicate failures skipped: {}", issuesByFingerprint.size(), duplicates.get());
+    }
+
+    /**
+     * @return hash of the scenario and the error message, where numbers, hex values and UUIDs are replaced with "#".
+     */
+    static String fingerprint(String summary, String description) {
+        String normalized = volatileParts.matcher(String.valueOf(description).toLowerCase(Locale.ROOT)).replaceAll("#")
+                .replaceAll("\\s+", " ")
+                .trim();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((summary + "\n" + normalized).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return summary + "\n" + normalized;
+        }
+    }
+}
@@ -1,10 +1,11 @@
 package setupAndUtilitys.util.jiraIntegration;
 
 import apiPOJO.jiraIntegration.SerializeCreatingIssue;
-import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.filter.session.SessionFilter;
 import io.restassured.http.ContentType;
 import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
 
 import java.io.File;
 
@@ -16,21 +17,29 @@ public class JiraIntegration {
      * Method below will do authorization with Bearer and token from personal JIRA account
      * You can use later that "session" variable in .filter(parameter = session) as a way to access JIRA
      * and do desire actions once logged in.
+     * Each instance has its own session and its own base URI (global RestAssured.baseURI isn't changed),
+     * so instances can be used from different threads at the same time.
      */
 
     SessionFilter session = new SessionFilter();
 
     private final String filipToken = "yourToken"; //ToDo -> get your auth token in order to do anything in JIRA via API.
+    private final String jiraUrl = "URL to JIRA"; //ToDo -> address to JIRA you use.
 
-    public synchronized void jiraAuthentication() {
-        RestAssured.baseURI = "URL to JIRA"; //ToDo -> address to JIRA you use.
+    private final RequestSpecification jiraSpecification = new RequestSpecBuilder()
+            .setBaseUri(jiraUrl)
+            .addHeader("Authorization", "Bearer " + filipToken)
+            .setAccept(ContentType.JSON)
+            .addFilter(session)
+            .build();
+
+    public void jiraAuthentication() {
 
         //Get session ID an store cookie in SessionFilter
 
-        String authorization = RestAssured.given()
-                .headers("Authorization", "Bearer " + filipToken,
-                        "Content-Type", ContentType.JSON,
-                        "Accept", ContentType.JSON)
+        String authorization = given()
+                .spec(jiraSpecification)
+                .contentType(ContentType.JSON)
                 .when()
                 .post("/auth/1/session")
                 .asString();
@@ -39,13 +48,15 @@ public class JiraIntegration {
 
     String idValueOfCreatedIssue; //ToDo -> id of created issue is used to interact with that specific issue, for ex. add attachment.
 
-    public synchronized void createJiraIssue(String summary, String description, String steps) {
+    /**
+     * @return id of the created issue.
+     */
+    public String createJiraIssue(String summary, String description, String steps) {
 
         //Creating Issue/Defect
         SerializeCreatingIssue sci = new SerializeCreatingIssue();
-        String createdIssueData = given().log().all().headers("Authorization", "Bearer " + filipToken,
-                        "Content-Type", ContentType.JSON,
-                        "Accept", ContentType.JSON).
+        String createdIssueData = given().spec(jiraSpecification).log().all()
+                .contentType(ContentType.JSON).
                 body(sci.createJson(summary, description, steps))
                 .when().
                 post("/rest/api/2/issue/")
@@ -58,14 +69,15 @@ public class JiraIntegration {
 
         JsonPath jp = new JsonPath(createdIssueData);
         idValueOfCreatedIssue = jp.getString("id");
+        return idValueOfCreatedIssue;
     }
 
 
-    public synchronized void addAttachmentToTheIssue(String screenShotPath, String idValueOfCreatedIssue) {
+    public void addAttachmentToTheIssue(String screenShotPath, String idValueOfCreatedIssue) {
         //Add attachment
 
-        given().header("X-Atlassian-Token", "no-check")
-                .filter(session)
+        given().spec(jiraSpecification)
+                .header("X-Atlassian-Token", "no-check")
                 .pathParam("issueId", idValueOfCreatedIssue)
                 .multiPart("file", new File(screenShotPath))
                 .when()
@@ -80,4 +92,3 @@ public class JiraIntegration {
 
 
 }
-
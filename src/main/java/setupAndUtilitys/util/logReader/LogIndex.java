@@ -0,0 +1,250 @@
+package setupAndUtilitys.util.logReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LogIndex {
+
+    /**
+     * Index of the IDs that are written in one log file, so many IDs can be looked up in the same log without reading
+     * it again. Background thread memory-maps the part of the file that was appended since the last refresh, finds
+     * the IDs in each line with idPattern (every group of the regex that matched is an ID) and remembers where the
+     * first line with each ID starts. Lookup of an ID is then a map lookup, a short backward scan from that line to the
+     * line the rule needs, and one positional read of that line. Rotated or truncated file is indexed again from the start.
+     * Index keeps one offset per distinct ID, so its size depends on how many IDs the pattern finds, not on the size of the log.
+     *
+     * @indexes -> one index per log file, shared by all threads.
+     * @indexer -> daemon thread that refreshes all indexes.
+     * @idPattern -> regex that finds the IDs in a line, from logIndexIdPattern.
+     * @refreshInterval -> how often (ms) the indexes are refreshed, from logIndexRefreshMillis.
+     * @chunkSize -> largest part of the file that is mapped at once.
+     */
+    private static final Map<Path, LogIndex> indexes = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService indexer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Pattern idPattern = Pattern.compile(Resources.logIndexIdPattern.getResource());
+    private static final long refreshInterval = Long.parseLong(Resources.logIndexRefreshMillis.getResource());
+    private static final int chunkSize = 8 * 1024 * 1024;
+    private static final Logger logger = LoggerFactory.getLogger(LogIndex.class);
+
+    private final Path path;
+    private final Map<String, Long> lineStartById = new HashMap<>();
+    private byte[] lineBytes = new byte[1024];
+    private long lineCount;
+    private long position;
+    private FileChannel channel;
+    private Object fileKey;
+
+    private LogIndex(Path path) {
+        this.path = path;
+        indexer.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param logFilePath path to the log file.
+     * @return index of the given file. It's built in the background on the first call and kept up to date after that.
+     */
+    public static LogIndex forFile(String logFilePath) {
+        return indexes.computeIfAbsent(Paths.get(logFilePath).toAbsolutePath().normalize(), LogIndex::new);
+    }
+
+    /**
+     * @param id      ID that was found by idPattern.
+     * @param rule    which line around the first line with the ID holds the value and how to cut it out.
+     * @param timeout how long to wait for the ID to be written to the log and indexed.
+     * @return value extracted by the rule, or null if the ID wasn't indexed before the timeout.
+     */
+    public String find(String id, RelativeRecordRule rule, Duration timeout) throws IOException {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        // File is read under the same lock as indexing, so the channel can't be closed by a rotation in between.
+        synchronized (this) {
+            Long lineStart;
+            while ((lineStart = lineStartById.get(id)) == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for " + id + " in " + path, e);
+                }
+            }
+            long wanted = lineStartBefore(lineStart, rule.getLinesBefore());
+            return wanted < 0 ? null : rule.extract(readLine(wanted));
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to index {}: {}", path, e.toString());
+        }
+    }
+
+    /**
+     * Indexes all complete lines that were appended since the last refresh, one mapped chunk at a time.
+     */
+    private void refresh() throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        synchronized (this) {
+            if (channel != null && (!Objects.equals(fileKey, attributes.fileKey()) || attributes.size() < position)) {
+                logger.info("{} was rotated or truncated, it's indexed again from the start.", path);
+                channel.close();
+                channel = null;
+                lineStartById.clear();
+                lineCount = 0;
+                position = 0;
+            }
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+                fileKey = attributes.fileKey();
+            }
+        }
+
+        long size = attributes.size();
+        while (position < size) {
+            synchronized (this) {
+                int indexed = indexChunk(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkSize, size - position)));
+                if (indexed == 0) {
+                    return;
+                }
+                position += indexed;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return number of bytes that were indexed, the last line is left for the next refresh if it's not complete yet.
+     */
+    private int indexChunk(MappedByteBuffer chunk) {
+        int lineStart = 0;
+        int limit = chunk.limit();
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) == '\n') {
+                indexLine(chunk, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart == 0 && limit == chunkSize) {
+            indexLine(chunk, 0, limit);
+            return limit;
+        }
+        return lineStart;
+    }
+
+    private void indexLine(ByteBuffer chunk, int from, int to) {
+        lineCount++;
+
+        int length = to > from && chunk.get(to - 1) == '\r' ? to - from - 1 : to - from;
+        if (lineBytes.length < length) {
+            lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+        }
+        ByteBuffer line = chunk.duplicate();
+        line.position(from);
+        line.get(lineBytes, 0, length);
+        Matcher matcher = idPattern.matcher(new String(lineBytes, 0, length, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            for (int group = 1; group <= matcher.groupCount(); group++) {
+                String id = matcher.group(group);
+                if (id != null) {
+                    lineStartById.putIfAbsent(id, position + from);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the file backwards from the line start until linesBefore more line ends are found.
+     *
+     * @return start of the line that is linesBefore lines before the given line, or -1 if the file has fewer lines.
+     */
+    private long lineStartBefore(long lineStart, int linesBefore) throws IOException {
+        if (linesBefore == 0) {
+            return lineStart;
+        }
+        // Byte at lineStart - 1 ends the previous line, line ends before it separate the lines we go back over.
+        int lineEnds = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = lineStart - 1;
+        while (end > 0) {
+            long from = Math.max(0, end - buffer.capacity());
+            int length = (int) (end - from);
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) <= 0) {
+                    break;
+                }
+            }
+            byte[] bytes = buffer.array();
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (bytes[i] == '\n' && ++lineEnds == linesBefore) {
+                    return from + i + 1;
+                }
+            }
+            end = from;
+        }
+        return lineEnds == linesBefore - 1 && lineStart > 0 ? 0 : -1;
+    }
+
+    private String readLine(long start) throws IOException {
+        FileChannel file = channel;
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(512);
+        long offset = start;
+        int read;
+        while ((read = file.read(buffer.clear(), offset)) > 0) {
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    line.write(bytes, 0, i > 0 && bytes[i - 1] == '\r' ? i - 1 : i);
+                    return line.toString(StandardCharsets.UTF_8.name());
+                }
+            }
+            line.write(bytes, 0, read);
+            offset += read;
+        }
+        return line.toString(StandardCharsets.UTF_8.name());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Index of " + path + ": " + lineStartById.size() + " IDs in " + lineCount + " lines, "
+                + position + " bytes";
+    }
+}
@@ -0,0 +1,267 @@
+package setupAndUtilitys.util.logReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class LogTailer {
+
+    /**
+     * Follows one log file like "tail -f". It remembers up to which byte the file was already read and every time
+     * reads only the bytes that were appended since then. Each new line is matched against the waiting searches as
+     * it's read, so no line is missed when more lines than the ring holds are appended at once. Last lines are kept
+     * in a ring, so a line before the matching one can be taken without reading the file again. If the file is rotated (replaced with a new file) the rest of
+     * the old file is read and then the new file is read from the start. If it's truncated it's read from the start.
+     * Waiting threads are woken up by a WatchService when the file changes, with a short timed wait as a fallback
+     * for file systems that don't send change events.
+     *
+     * @tailers -> one tailer per log file, shared by all threads.
+     * @ringSize -> how many last lines are kept in memory.
+     * @maxWait -> longest wait between two checks of the file if no change event comes.
+     * @searches -> searches of the threads that are waiting in awaitLine, matched against every new line.
+     */
+    private static final Map<Path, LogTailer> tailers = new ConcurrentHashMap<>();
+    private static final int ringSize = Integer.parseInt(Resources.logTailerRingSize.getResource());
+    private static final long maxWait = TimeUnit.SECONDS.toMillis(1);
+    private static final Logger logger = LoggerFactory.getLogger(LogTailer.class);
+
+    private final Path path;
+    private final String[] lines = new String[ringSize];
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+    private byte[] partialLine = new byte[256];
+    private int partialLength;
+    private long lineCount;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+    private final List<Search> searches = new ArrayList<>();
+
+    private LogTailer(Path path) {
+        this.path = path;
+        startWatching();
+    }
+
+    /**
+     * @param logFilePath path to the log file.
+     * @return tailer of the given file, the same one for all threads.
+     */
+    public static LogTailer forFile(String logFilePath) {
+        return tailers.computeIfAbsent(Paths.get(logFilePath).toAbsolutePath().normalize(), LogTailer::new);
+    }
+
+    /**
+     * Lines that are still in the ring are checked first, then new lines are read as they are written to the file.
+     *
+     * @param value       text that the line has to contain.
+     * @param linesBefore 0 to return the matching line, or how many lines before the matching line should be returned.
+     * @param timeout     how long to wait for the line.
+     * @return first line that contains value (or the line linesBefore lines before it), or null if there is no such
+     * line before the timeout, or the line before it is no longer in the ring.
+     */
+    public synchronized String awaitLine(String value, int linesBefore, Duration timeout) throws IOException {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        for (long index = Math.max(0, lineCount - lines.length); index < lineCount; index++) {
+            if (lines[(int) (index % lines.length)].contains(value)) {
+                return lineBefore(index, linesBefore);
+            }
+        }
+
+        Search search = new Search(value, linesBefore);
+        searches.add(search);
+        try {
+            while (true) {
+                readNewLines();
+                if (search.found) {
+                    return search.line;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+                try {
+                    wait(Math.min(remaining, maxWait));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for " + value + " in " + path, e);
+                }
+                // Another waiting thread may have read the line while this one was waiting.
+                if (search.found) {
+                    return search.line;
+                }
+            }
+        } finally {
+            searches.remove(search);
+        }
+    }
+
+    /**
+     * @return line linesBefore lines before the line with the given index, or null if it's no longer in the ring.
+     */
+    private String lineBefore(long index, int linesBefore) {
+        long wanted = index - linesBefore;
+        return wanted < 0 || wanted < lineCount - lines.length ? null : lines[(int) (wanted % lines.length)];
+    }
+
+    /**
+     * Reads everything that was appended since the last read and adds it to the ring line by line.
+     */
+    private void readNewLines() throws IOException {
+        Object currentKey;
+        long size;
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            currentKey = attributes.fileKey();
+            size = attributes.size();
+        } catch (NoSuchFileException e) {
+            return;
+        }
+
+        if (channel != null && !Objects.equals(fileKey, currentKey)) {
+            readToEnd();
+            closeChannel();
+            position = 0;
+            // Old file won't get more bytes, so its unterminated last line is complete.
+            if (partialLength > 0) {
+                addLine();
+            }
+        }
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            fileKey = currentKey;
+        }
+        if (size < position) {
+            logger.info("{} was truncated, it's read again from the start.", path);
+            position = 0;
+            partialLength = 0;
+        }
+        readToEnd();
+    }
+
+    private void readToEnd() throws IOException {
+        int read;
+        while ((read = channel.read(readBuffer.clear(), position)) > 0) {
+            position += read;
+            byte[] bytes = readBuffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] == '\n') {
+                    appendPartial(bytes, lineStart, i - lineStart);
+                    addLine();
+                    lineStart = i + 1;
+                }
+            }
+            appendPartial(bytes, lineStart, read - lineStart);
+        }
+    }
+
+    private void appendPartial(byte[] bytes, int from, int length) {
+        if (partialLength + length > partialLine.length) {
+            partialLine = Arrays.copyOf(partialLine, Math.max(partialLength + length, partialLine.length * 2));
+        }
+        System.arraycopy(bytes, from, partialLine, partialLength, length);
+        partialLength += length;
+    }
+
+    private void addLine() {
+        int length = partialLength > 0 && partialLine[partialLength - 1] == '\r' ? partialLength - 1 : partialLength;
+        String line = new String(partialLine, 0, length, StandardCharsets.UTF_8);
+        lines[(int) (lineCount % lines.length)] = line;
+        lineCount++;
+        partialLength = 0;
+        for (Search search : searches) {
+            if (!search.found && line.contains(search.value)) {
+                search.found = true;
+                search.line = lineBefore(lineCount - 1, search.linesBefore);
+                notifyAll();
+            }
+        }
+    }
+
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close {}: {}", path, e.toString());
+        }
+        channel = null;
+    }
+
+    /**
+     * Daemon thread wakes up waiting threads whenever the log file is created or changed.
+     * If the directory can't be watched, waiting threads still check the file every maxWait.
+     */
+    private void startWatching() {
+        Path directory = path.getParent();
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            logger.info("Unable to watch {}, it will be checked every {} ms: {}", directory, maxWait, e.toString());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watchService.take();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (path.getFileName().equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            synchronized (this) {
+                                notifyAll();
+                            }
+                            break;
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // watching stopped, waiting threads fall back to timed checks
+            }
+        }, "log-tailer-" + path.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Search of one waiting thread, it's filled in by addLine when the first matching line is read.
+     */
+    private static class Search {
+        private final String value;
+        private final int linesBefore;
+        private boolean found;
+        private String line;
+
+        Search(String value, int linesBefore) {
+            this.value = value;
+            this.linesBefore = linesBefore;
+        }
+    }
+}
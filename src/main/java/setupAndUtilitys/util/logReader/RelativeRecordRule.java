@@ -0,0 +1,70 @@
+package setupAndUtilitys.util.logReader;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RelativeRecordRule {
+
+    /**
+     * Says which line around the matching line holds the value and how to cut the value out of it.
+     * It's written as "lineOffset:beginIndex" or "lineOffset:regex", ex. "-7:12" takes the line 7 lines before the
+     * matching line and returns it from the 12th character, "0:payment_id=(\w+)" returns the first group of the regex
+     * from the matching line itself.
+     *
+     * @lineOffset -> 0 for the matching line, negative number for lines before it.
+     * @beginIndex -> value starts at this character of the line, used if there is no regex.
+     * @pattern -> first group of this regex is the value, null if beginIndex is used.
+     */
+    private final int lineOffset;
+    private final int beginIndex;
+    private final Pattern pattern;
+
+    private RelativeRecordRule(int lineOffset, int beginIndex, Pattern pattern) {
+        if (lineOffset > 0) {
+            throw new IllegalArgumentException("Only the matching line or lines before it can be used, not " + lineOffset);
+        }
+        this.lineOffset = lineOffset;
+        this.beginIndex = beginIndex;
+        this.pattern = pattern;
+    }
+
+    /**
+     * @param rule rule in "lineOffset:beginIndex" or "lineOffset:regex" format.
+     */
+    public static RelativeRecordRule parse(String rule) {
+        int separator = rule.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Rule has to be lineOffset:beginIndex or lineOffset:regex, not " + rule);
+        }
+        int lineOffset = Integer.parseInt(rule.substring(0, separator).trim());
+        String extraction = rule.substring(separator + 1);
+        if (extraction.trim().matches("\\d+")) {
+            return new RelativeRecordRule(lineOffset, Integer.parseInt(extraction.trim()), null);
+        }
+        return new RelativeRecordRule(lineOffset, 0, Pattern.compile(extraction));
+    }
+
+    /**
+     * @return how many lines before the matching line the value is, 0 if it's in the matching line.
+     */
+    public int getLinesBefore() {
+        return -lineOffset;
+    }
+
+    /**
+     * @param line line that was selected by lineOffset.
+     * @return value cut out of the line, or null if the regex doesn't match it.
+     */
+    public String extract(String line) {
+        if (pattern == null) {
+            return line.substring(beginIndex);
+        }
+        Matcher matcher = pattern.matcher(line);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    @Override
+    public String toString() {
+        return lineOffset + ":" + (pattern == null ? String.valueOf(beginIndex) : pattern.pattern());
+    }
+}
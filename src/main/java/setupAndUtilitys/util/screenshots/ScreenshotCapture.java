@@ -0,0 +1,188 @@
+package setupAndUtilitys.util.screenshots;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ScreenshotCapture {
+
+    /**
+     * Takes screenshots of the browser according to the policy and stores them next to the report as JPEG.
+     * Only taking the screenshot is done on the scenario thread, resizing and encoding are done in the background.
+     * Screenshot file is named by the hash of the screenshot, so the same screen is stored only once.
+     * When all stored screenshots reach the budget, new screenshots aren't taken anymore.
+     *
+     * @policy -> failed (only failed scenarios), always, or sampled (failed scenarios and sampleRate of passed ones).
+     * @sampleRate -> part of passed scenarios that get the screenshot with sampled policy, ex. 0.1.
+     * @directory -> where screenshots are stored.
+     * @maxWidth -> wider screenshots are scaled down to this width.
+     * @jpegQuality -> JPEG quality from 0 to 1.
+     * @budget -> most bytes of screenshots stored in one run.
+     * @storedBytes -> bytes of screenshots stored (or being encoded) so far.
+     * @screenshotsByHash -> stored (or being stored) file for each screenshot hash.
+     */
+    private static final String policy = Resources.screenshotPolicy.getResource().toLowerCase(Locale.ROOT);
+    private static final double sampleRate = Double.parseDouble(Resources.screenshotSampleRate.getResource());
+    private static final Path directory = Paths.get(Resources.screenshotDir.getResource());
+    private static final int maxWidth = Integer.parseInt(Resources.screenshotMaxWidth.getResource());
+    private static final float jpegQuality = Float.parseFloat(Resources.screenshotJpegQuality.getResource());
+    private static final long budget = Long.parseLong(Resources.screenshotBudgetMb.getResource()) * 1024 * 1024;
+    private static final AtomicLong storedBytes = new AtomicLong();
+    private static final Map<String, CompletableFuture<Path>> screenshotsByHash = new ConcurrentHashMap<>();
+    private static final ExecutorService encoder = Executors.newFixedThreadPool(
+            Integer.parseInt(Resources.screenshotEncodeThreads.getResource()), runnable -> {
+                Thread thread = new Thread(runnable, "screenshot-encoder");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotCapture.class);
+
+    private ScreenshotCapture() {
+    }
+
+    /**
+     * @param failed true if the scenario failed.
+     * @return true if the screenshot should be taken by the screenshotPolicy.
+     */
+    public static boolean shouldCapture(boolean failed) {
+        switch (policy) {
+            case "always":
+                return true;
+            case "sampled":
+                return failed || ThreadLocalRandom.current().nextDouble() < sampleRate;
+            default:
+                return failed;
+        }
+    }
+
+    /**
+     * Takes the screenshot now and queues it for encoding.
+     *
+     * @param driver browser from which the screenshot is taken.
+     * @return future with the stored file. It completes with null if the screenshot isn't stored,
+     * because the budget is reached or the file can't be written, so only stored files are attached to the report.
+     */
+    public static CompletableFuture<Path> capture(TakesScreenshot driver) {
+        if (storedBytes.get() >= budget) {
+            logger.info("Screenshot isn't taken, screenshot budget of {} MB is reached.", budget / 1024 / 1024);
+            return CompletableFuture.completedFuture(null);
+        }
+        byte[] png = driver.getScreenshotAs(OutputType.BYTES);
+        String hash = hash(png);
+        Path file = directory.resolve(hash + ".jpg");
+        return screenshotsByHash.computeIfAbsent(hash, key -> CompletableFuture.supplyAsync(() -> store(png, file), encoder));
+    }
+
+    /**
+     * Waits until all queued screenshots are stored.
+     *
+     * @param timeout how long to wait.
+     */
+    public static void drain(Duration timeout) {
+        try {
+            CompletableFuture.allOf(screenshotsByHash.values().toArray(new CompletableFuture<?>[0]))
+                    .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Screenshots that couldn't be stored were already logged.
+        } catch (TimeoutException e) {
+            logger.warn("Not all screenshots were stored in {}.", timeout);
+        }
+        logger.info("Screenshots stored: {}, {} KB", screenshotsByHash.size(), storedBytes.get() / 1024);
+    }
+
+    private static Path store(byte[] png, Path file) {
+        try {
+            byte[] jpeg = encode(png);
+            if (storedBytes.addAndGet(jpeg.length) > budget) {
+                storedBytes.addAndGet(-jpeg.length);
+                logger.warn("Screenshot {} isn't stored, screenshot budget of {} MB is reached.", file, budget / 1024 / 1024);
+                return null;
+            }
+            Files.createDirectories(directory);
+            Files.write(file, jpeg);
+            return file;
+        } catch (IOException e) {
+            logger.warn("Unable to store screenshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return screenshot scaled down to maxWidth and compressed to JPEG with jpegQuality.
+     */
+    private static byte[] encode(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            throw new IOException("Screenshot isn't a readable image.");
+        }
+        int width = Math.min(source.getWidth(), maxWidth);
+        int height = (int) Math.max(1, (long) source.getHeight() * width / source.getWidth());
+
+        // JPEG has no alpha channel, so the image is always drawn to RGB.
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(jpeg)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return jpeg.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(Arrays.hashCode(bytes));
+        }
+    }
+}
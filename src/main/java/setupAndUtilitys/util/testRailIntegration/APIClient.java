@@ -2,18 +2,41 @@ package setupAndUtilitys.util.testRailIntegration;
 
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 
 import java.io.*;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 public class APIClient {
+
+    /**
+     * @httpClient -> one client for all APIClient instances, it keeps connections to TestRail open and reuses them.
+     * @m_authorization -> Basic auth header, it's computed once when user or password is set.
+     */
+    private static final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
     private String m_user;
     private String m_password;
     private String m_url;
+    private String m_authorization;
 
 
     public APIClient(String base_url) {
@@ -37,6 +60,7 @@ public class APIClient {
 
     public void setUser(String user) {
         this.m_user = user;
+        this.m_authorization = null;
     }
 
     /**
@@ -50,6 +74,7 @@ public class APIClient {
 
     public void setPassword(String password) {
         this.m_password = password;
+        this.m_authorization = null;
     }
 
     /**
@@ -105,162 +130,165 @@ public class APIClient {
         return this.sendRequest("POST", uri, data);
     }
 
+    /**
+     * Send Get/POST asynchronously
+     * <p>
+     * Same as sendGet/sendPost, but the request is sent without blocking the calling thread.
+     * The future completes with the same result, or exceptionally with IOException/APIException.
+     */
+    public CompletableFuture<Object> sendGetAsync(String uri, String data) {
+        return this.sendRequestAsync("GET", uri, data);
+    }
+
+    public CompletableFuture<Object> sendGetAsync(String uri) {
+        return this.sendRequestAsync("GET", uri, null);
+    }
+
+    public CompletableFuture<Object> sendPostAsync(String uri, Object data) {
+        return this.sendRequestAsync("POST", uri, data);
+    }
+
     private Object sendRequest(String method, String uri, Object data)
             throws MalformedURLException, IOException, APIException {
-        URL url = new URL(this.m_url + uri);
-        // Create the connection object and set the required HTTP method
-        // (GET/POST) and headers (content type and basic auth).
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        HttpRequest request = buildRequest(method, uri, data);
+        try {
+            return handleResponse(uri, data, httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for TestRail response to " + uri);
+        }
+    }
 
-        String auth = getAuthorization(this.m_user, this.m_password);
-        conn.addRequestProperty("Authorization", "Basic " + auth);
+    private CompletableFuture<Object> sendRequestAsync(String method, String uri, Object data) {
+        HttpRequest request;
+        try {
+            request = buildRequest(method, uri, data);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try {
+                        return handleResponse(uri, data, response);
+                    } catch (IOException | APIException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    private HttpRequest buildRequest(String method, String uri, Object data)
+            throws MalformedURLException, IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(this.m_url + uri));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedURLException(e.getMessage());
+        }
+        builder.header("Authorization", "Basic " + getAuthorization());
 
         if (method.equals("POST")) {
-            conn.setRequestMethod("POST");
             // Add the POST arguments, if any. We just serialize the passed
             // data object (i.e. a dictionary) and then add it to the
             // request body.
-            if (data != null) {
-                if (uri.startsWith("add_attachment"))   // add_attachment API requests
-                {
-                    String boundary = "TestRailAPIAttachmentBoundary"; //Can be any random string
-                    File uploadFile = new File((String) data);
-
-                    conn.setDoOutput(true);
-                    conn.addRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-                    OutputStream ostreamBody = conn.getOutputStream();
-                    BufferedWriter bodyWriter = new BufferedWriter(new OutputStreamWriter(ostreamBody));
-
-                    bodyWriter.write("\n\n--" + boundary + "\r\n");
-                    bodyWriter.write("Content-Disposition: form-data; name=\"attachment\"; filename=\""
-                            + uploadFile.getName() + "\"");
-                    bodyWriter.write("\r\n\r\n");
-                    bodyWriter.flush();
-
-                    //Read file into request
-                    InputStream istreamFile = new FileInputStream(uploadFile);
-                    int bytesRead;
-                    byte[] dataBuffer = new byte[1024];
-                    while ((bytesRead = istreamFile.read(dataBuffer)) != -1) {
-                        ostreamBody.write(dataBuffer, 0, bytesRead);
-                    }
-
-                    ostreamBody.flush();
-
-                    //end of attachment, add boundary
-                    bodyWriter.write("\r\n--" + boundary + "--\r\n");
-                    bodyWriter.flush();
-
-                    //Close streams
-                    istreamFile.close();
-                    ostreamBody.close();
-                    bodyWriter.close();
-                } else    // Not an attachment
-                {
-                    conn.addRequestProperty("Content-Type", "application/json");
-                    byte[] block = JSONValue.toJSONString(data).
-                            getBytes("UTF-8");
-
-                    conn.setDoOutput(true);
-                    OutputStream ostream = conn.getOutputStream();
-                    ostream.write(block);
-                    ostream.close();
+            if (data == null) {
+                builder.POST(HttpRequest.BodyPublishers.noBody());
+            } else if (uri.startsWith("add_attachment"))   // add_attachment API requests
+            {
+                String boundary = "TestRailAPIAttachmentBoundary"; //Can be any random string
+                Path uploadFile = Paths.get((String) data);
+                if (!Files.isReadable(uploadFile)) {
+                    throw new FileNotFoundException(uploadFile.toString());
                 }
+                byte[] head = ("\n\n--" + boundary + "\r\n"
+                        + "Content-Disposition: form-data; name=\"attachment\"; filename=\""
+                        + uploadFile.getFileName() + "\"\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+                byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+                // File is streamed into the request, it's never loaded into memory.
+                // Length is known up front, so the body is sent with Content-Length instead of chunked.
+                long length = head.length + Files.size(uploadFile) + end.length;
+                builder.header("Content-Type", "multipart/form-data; boundary=" + boundary);
+                builder.POST(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        return new SequenceInputStream(new ByteArrayInputStream(head),
+                                new SequenceInputStream(Files.newInputStream(uploadFile), new ByteArrayInputStream(end)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }), length));
+            } else    // Not an attachment
+            {
+                builder.header("Content-Type", "application/json");
+                builder.POST(HttpRequest.BodyPublishers.ofString(JSONValue.toJSONString(data), StandardCharsets.UTF_8));
             }
         } else    // GET request
         {
-            conn.addRequestProperty("Content-Type", "application/json");
-        }
-
-        // Execute the actual web request (if it wasn't already initiated
-        // by getOutputStream above) and record any occurred errors (we use
-        // the error stream in this case).
-        int status = conn.getResponseCode();
-
-        InputStream istream;
-        if (status != 200) {
-            istream = conn.getErrorStream();
-            if (istream == null) {
-                throw new APIException(
-                        "TestRail API return HTTP " + status +
-                                " (No additional error message received)"
-                );
-            }
-        } else {
-            istream = conn.getInputStream();
+            builder.header("Content-Type", "application/json");
+            builder.GET();
         }
+        return builder.build();
+    }
 
-        // If 'get_attachment/' returned valid status code, save the file
-        if ((istream != null) && (uri.startsWith("get_attachment/"))) {
-            FileOutputStream outputStream = new FileOutputStream((String) data);
+    private Object handleResponse(String uri, Object data, HttpResponse<InputStream> response)
+            throws IOException, APIException {
+        int status = response.statusCode();
 
-            int bytesRead = 0;
-            byte[] buffer = new byte[1024];
-            while ((bytesRead = istream.read(buffer)) > 0) {
-                outputStream.write(buffer, 0, bytesRead);
+        try (InputStream istream = response.body()) {
+            // If 'get_attachment/' returned valid status code, save the file
+            if (status == 200 && uri.startsWith("get_attachment/")) {
+                Files.copy(istream, Paths.get((String) data), StandardCopyOption.REPLACE_EXISTING);
+                return (String) data;
             }
 
-            outputStream.close();
-            istream.close();
-            return (String) data;
-        }
+            // Not an attachment received
+            // Deserialize the response body, if any, straight from the stream.
+            Object result = parseJson(istream);
+
+            // Check for any occurred errors and add additional details to
+            // the exception message, if any (e.g. the error message returned
+            // by TestRail).
+            if (status != 200) {
+                String error = "No additional error message received";
+                if (result instanceof JSONObject) {
+                    JSONObject obj = (JSONObject) result;
+                    if (obj.containsKey("error")) {
+                        error = '"' + (String) obj.get("error") + '"';
+                    }
+                }
 
-        // Not an attachment received
-        // Read the response body, if any, and deserialize it from JSON.
-        String text = "";
-        if (istream != null) {
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(
-                            istream,
-                            "UTF-8"
-                    )
-            );
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                text += line;
-                text += System.getProperty("line.separator");
+                throw new APIException(
+                        "TestRail API returned HTTP " + status +
+                                "(" + error + ")",
+                        status
+                );
             }
 
-            reader.close();
+            return result;
         }
+    }
 
-        Object result;
-        if (!text.equals("")) {
-            result = JSONValue.parse(text);
-        } else {
-            result = new JSONObject();
+    /**
+     * @return parsed JSON, empty JSONObject if the body is empty, or null if the body isn't JSON.
+     */
+    private static Object parseJson(InputStream istream) throws IOException {
+        PushbackInputStream body = new PushbackInputStream(new BufferedInputStream(istream));
+        int first = body.read();
+        if (first == -1) {
+            return new JSONObject();
         }
-
-        // Check for any occurred errors and add additional details to
-        // the exception message, if any (e.g. the error message returned
-        // by TestRail).
-        if (status != 200) {
-            String error = "No additional error message received";
-            if (result != null && result instanceof JSONObject) {
-                JSONObject obj = (JSONObject) result;
-                if (obj.containsKey("error")) {
-                    error = '"' + (String) obj.get("error") + '"';
-                }
-            }
-
-            throw new APIException(
-                    "TestRail API returned HTTP " + status +
-                            "(" + error + ")"
-            );
+        body.unread(first);
+        try {
+            return new JSONParser().parse(new InputStreamReader(body, StandardCharsets.UTF_8));
+        } catch (ParseException e) {
+            return null;
         }
-
-        return result;
     }
 
-    private static String getAuthorization(String user, String password) {
-        try {
-            return new String(Base64.getEncoder().encode((user + ":" + password).getBytes()));
-        } catch (IllegalArgumentException e) {
-            // Not thrown
+    private String getAuthorization() {
+        if (this.m_authorization == null) {
+            this.m_authorization = Base64.getEncoder()
+                    .encodeToString((this.m_user + ":" + this.m_password).getBytes(StandardCharsets.UTF_8));
         }
-
-        return "";
+        return this.m_authorization;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,32 @@ package setupAndUtilitys.util.testRailIntegration;
 
 public class APIException extends Exception
 {
+    /**
+     * @statusCode -> HTTP status that TestRail returned, 0 if the error didn't come from the response.
+     */
+    private final int statusCode;
+
     public APIException(String message)
+    {
+        this(message, 0);
+    }
+
+    public APIException(String message, int statusCode)
     {
         super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    /**
+     * @return true if the same request can succeed later, when TestRail is rate limiting (429) or has a server error (5xx).
+     */
+    public boolean isRetryable()
+    {
+        return statusCode == 429 || statusCode >= 500;
     }
-}
\ No newline at end of file
+}
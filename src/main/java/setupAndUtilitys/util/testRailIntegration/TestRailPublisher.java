@@ -0,0 +1,320 @@
+package setupAndUtilitys.util.testRailIntegration;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class TestRailPublisher {
+
+    /**
+     * Sends test results to TestRail in the background, so scenario threads don't wait on TestRail.
+     * Results are queued and sent in bulk with add_results_for_cases, one request per run, once batchSize results
+     * are queued or flushInterval passes after the first queued result. Request that fails with 429, 5xx or an IO error
+     * is repeated with growing delay, and batch that still can't be sent is appended to the spool file,
+     * from where it can be sent again with resendSpool(). Queue is drained when the JVM shuts down.
+     *
+     * @queue -> results that are waiting to be sent.
+     * @flushMarker -> put to the queue by drain(), so the batch that is being collected is sent right away.
+     * @pending -> results that are queued or being sent, drain() waits until it's 0.
+     * @inFlight -> batches (per run) that the sender thread is sending or retrying, drain() spools them if it times out.
+     * @batchSize -> most results in one request, from testRailBatchSize.
+     * @flushInterval -> longest time (ms) a result waits in the queue, from testRailFlushIntervalSeconds.
+     * @maxRetries -> how many times a failed request is repeated, from testRailMaxRetries.
+     * @retryInitialDelay -> wait (ms) before the first repeat, it doubles after each one, from testRailRetryInitialDelayMillis.
+     * @spoolFile -> file to which batches that couldn't be sent are appended, one JSON per line, from testRailSpoolFile.
+     * @drainTimeout -> how long the shutdown waits for queued results to be sent, from testRailDrainTimeoutSeconds.
+     */
+    private static final BlockingQueue<QueuedResult> queue = new LinkedBlockingQueue<>();
+    private static final QueuedResult flushMarker = new QueuedResult(null, null);
+    private static int pending;
+    private static final Map<String, JSONArray> inFlight = new LinkedHashMap<>();
+    private static volatile boolean draining;
+    private static final int batchSize = Integer.parseInt(Resources.testRailBatchSize.getResource());
+    private static final long flushInterval = TimeUnit.SECONDS.toMillis(Long.parseLong(Resources.testRailFlushIntervalSeconds.getResource()));
+    private static final int maxRetries = Integer.parseInt(Resources.testRailMaxRetries.getResource());
+    private static final long retryInitialDelay = Long.parseLong(Resources.testRailRetryInitialDelayMillis.getResource());
+    private static final Path spoolFile = Paths.get(Resources.testRailSpoolFile.getResource());
+    private static final Duration drainTimeout = Duration.ofSeconds(Long.parseLong(Resources.testRailDrainTimeoutSeconds.getResource()));
+    private static final Logger logger = LoggerFactory.getLogger(TestRailPublisher.class);
+
+    private static APIClient client;
+
+    static {
+        Thread sender = new Thread(TestRailPublisher::sendLoop, "testrail-publisher");
+        sender.setDaemon(true);
+        sender.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> drain(drainTimeout), "testrail-publisher-shutdown"));
+    }
+
+    private TestRailPublisher() {
+    }
+
+    /**
+     * Queues the result and returns immediately.
+     *
+     * @param runId  ID of the run in TestRail.
+     * @param caseId ID of the test case in TestRail.
+     * @param result status_id, comment and other fields of the result, like for add_result_for_case.
+     */
+    public static void publish(String runId, String caseId, Map<String, ? extends Serializable> result) {
+        JSONObject entry = new JSONObject();
+        putAll(entry, result);
+        put(entry, "case_id", caseIdValue(caseId));
+        synchronized (TestRailPublisher.class) {
+            pending++;
+        }
+        queue.add(new QueuedResult(runId, entry));
+    }
+
+    /**
+     * Sends everything that is queued without waiting for flushInterval and waits until it's sent or spooled.
+     *
+     * @param timeout how long to wait. Results that are still queued after it are written to the spool file.
+     */
+    public static void drain(Duration timeout) {
+        draining = true;
+        queue.add(flushMarker);
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        synchronized (TestRailPublisher.class) {
+            while (pending > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    TestRailPublisher.class.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        List<QueuedResult> notSent = new ArrayList<>();
+        queue.drainTo(notSent);
+        notSent.remove(flushMarker);
+        Map<String, JSONArray> notFinished;
+        synchronized (TestRailPublisher.class) {
+            notFinished = new LinkedHashMap<>(inFlight);
+            inFlight.clear();
+        }
+        if (!notSent.isEmpty() || !notFinished.isEmpty()) {
+            logger.warn("{} queued TestRail results and {} batches that were being sent weren't sent in {}, they are written to {}",
+                    notSent.size(), notFinished.size(), timeout, spoolFile);
+            groupByRun(notSent).forEach(TestRailPublisher::spool);
+            notFinished.forEach(TestRailPublisher::spool);
+            sent(notSent.size());
+        }
+        draining = false;
+    }
+
+    /**
+     * Queues again all batches from the spool file, ex. after TestRail was unavailable during the previous run.
+     */
+    public static void resendSpool() throws IOException {
+        if (!Files.exists(spoolFile)) {
+            return;
+        }
+        Path resending = spoolFile.resolveSibling(spoolFile.getFileName() + ".resending");
+        synchronized (spoolFile) {
+            Files.move(spoolFile, resending, StandardCopyOption.REPLACE_EXISTING);
+        }
+        for (String line : Files.readAllLines(resending, StandardCharsets.UTF_8)) {
+            JSONObject batch = (JSONObject) JSONValue.parse(line);
+            if (batch == null) {
+                continue;
+            }
+            for (Object entry : (JSONArray) batch.get("results")) {
+                synchronized (TestRailPublisher.class) {
+                    pending++;
+                }
+                queue.add(new QueuedResult(String.valueOf(batch.get("run_id")), (JSONObject) entry));
+            }
+        }
+        Files.delete(resending);
+    }
+
+    private static void sendLoop() {
+        List<QueuedResult> batch = new ArrayList<>();
+        while (true) {
+            try {
+                QueuedResult first = queue.take();
+                if (first == flushMarker) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushInterval;
+                while (batch.size() < batchSize) {
+                    long remaining = draining ? 0 : deadline - System.currentTimeMillis();
+                    QueuedResult next = queue.poll(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+                    if (next == null || next == flushMarker) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                Map<String, JSONArray> byRun = groupByRun(batch);
+                synchronized (TestRailPublisher.class) {
+                    inFlight.putAll(byRun);
+                }
+                byRun.forEach(TestRailPublisher::send);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Unable to send TestRail results.", e);
+                Map<String, JSONArray> notFinished;
+                synchronized (TestRailPublisher.class) {
+                    notFinished = new LinkedHashMap<>(inFlight);
+                    inFlight.clear();
+                }
+                notFinished.forEach(TestRailPublisher::spool);
+            } finally {
+                sent(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends one batch, repeating it with growing delay while TestRail returns 429/5xx or the connection fails.
+     * If drain() timed out and already spooled the batch, it's not repeated or spooled again.
+     */
+    private static void send(String runId, JSONArray results) {
+        JSONObject body = new JSONObject();
+        put(body, "results", results);
+        long delay = retryInitialDelay;
+        for (int attempt = 0; ; attempt++) {
+            synchronized (TestRailPublisher.class) {
+                if (inFlight.get(runId) != results) {
+                    return;
+                }
+            }
+            try {
+                client().sendPost("add_results_for_cases/" + runId, body);
+                logger.debug("Sent {} results to TestRail run {}", results.size(), runId);
+                finish(runId, results);
+                return;
+            } catch (APIException | IOException e) {
+                boolean retryable = !(e instanceof APIException) || ((APIException) e).isRetryable();
+                if (!retryable || attempt >= maxRetries) {
+                    logger.warn("Unable to send {} results to TestRail run {}: {}", results.size(), runId, e.toString());
+                    if (finish(runId, results)) {
+                        spool(runId, results);
+                    }
+                    return;
+                }
+                try {
+                    Thread.sleep(draining ? Math.min(delay, retryInitialDelay) : delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    if (finish(runId, results)) {
+                        spool(runId, results);
+                    }
+                    return;
+                }
+                delay *= 2;
+            }
+        }
+    }
+
+    /**
+     * @return true if the batch was still in flight, false if drain() already took it.
+     */
+    private static synchronized boolean finish(String runId, JSONArray results) {
+        return inFlight.remove(runId, results);
+    }
+
+    private static void spool(String runId, JSONArray results) {
+        JSONObject batch = new JSONObject();
+        put(batch, "run_id", runId);
+        put(batch, "results", results);
+        synchronized (spoolFile) {
+            try (BufferedWriter writer = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(batch.toJSONString());
+                writer.newLine();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static Map<String, JSONArray> groupByRun(List<QueuedResult> results) {
+        Map<String, JSONArray> byRun = new LinkedHashMap<>();
+        for (QueuedResult result : results) {
+            add(byRun.computeIfAbsent(result.runId, runId -> new JSONArray()), result.entry);
+        }
+        return byRun;
+    }
+
+    /**
+     * json-simple types are raw collections, so unchecked calls are kept in these helpers.
+     */
+    @SuppressWarnings("unchecked")
+    private static void put(JSONObject json, String key, Object value) {
+        json.put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putAll(JSONObject json, Map<String, ?> fields) {
+        json.putAll(fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(JSONArray array, Object value) {
+        array.add(value);
+    }
+
+    private static synchronized void sent(int count) {
+        pending -= count;
+        TestRailPublisher.class.notifyAll();
+    }
+
+    private static APIClient client() {
+        if (client == null) {
+            client = TestRailAccount.testRailApiClient();
+        }
+        return client;
+    }
+
+    /**
+     * TestRail expects numeric case IDs, IDs written with the "C" prefix are accepted too.
+     */
+    private static Object caseIdValue(String caseId) {
+        String digits = caseId.startsWith("C") ? caseId.substring(1) : caseId;
+        try {
+            return Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            return caseId;
+        }
+    }
+
+    private static class QueuedResult {
+        private final String runId;
+        private final JSONObject entry;
+
+        QueuedResult(String runId, JSONObject entry) {
+            this.runId = runId;
+            this.entry = entry;
+        }
+    }
+}
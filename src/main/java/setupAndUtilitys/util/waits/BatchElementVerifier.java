@@ -0,0 +1,109 @@
+package setupAndUtilitys.util.waits;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BatchElementVerifier {
+
+    /**
+     * Result of the check for one element.
+     * UNSUPPORTED is returned for locators that can't be resolved inside the page (ex. ByChained),
+     * those elements should be checked one by one with Selenium.
+     */
+    public enum ElementState {
+        VISIBLE, NOT_VISIBLE, NOT_PRESENT, UNSUPPORTED
+    }
+
+    /**
+     * Script is executed in one async round trip. It receives all locators as [using, value] pairs,
+     * resolves them inside the page and polls every 100ms until all elements are present and visible,
+     * or until the deadline passes. It returns the state of each element in the same order as the locators.
+     * Visibility follows the same rules as Selenium: element must have size and must not be hidden with
+     * display, visibility or opacity.
+     */
+    private static final String VERIFY_SCRIPT =
+            "var locators = arguments[0], timeout = arguments[1], callback = arguments[arguments.length - 1];\n" +
+                    "var start = Date.now();\n" +
+                    "function byText(value, partial) {\n" +
+                    "  var links = document.getElementsByTagName('a');\n" +
+                    "  for (var i = 0; i < links.length; i++) {\n" +
+                    "    var text = (links[i].innerText || '').trim();\n" +
+                    "    if (partial ? text.indexOf(value) !== -1 : text === value) { return links[i]; }\n" +
+                    "  }\n" +
+                    "  return null;\n" +
+                    "}\n" +
+                    "function find(using, value) {\n" +
+                    "  switch (using) {\n" +
+                    "    case 'xpath': return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;\n" +
+                    "    case 'css selector': return document.querySelector(value);\n" +
+                    "    case 'tag name': return document.getElementsByTagName(value)[0] || null;\n" +
+                    "    case 'link text': return byText(value, false);\n" +
+                    "    case 'partial link text': return byText(value, true);\n" +
+                    "    default: return null;\n" +
+                    "  }\n" +
+                    "}\n" +
+                    "function isVisible(element) {\n" +
+                    "  if (element.getClientRects().length === 0) { return false; }\n" +
+                    "  var rect = element.getBoundingClientRect();\n" +
+                    "  if (rect.width === 0 && rect.height === 0) { return false; }\n" +
+                    "  var style = window.getComputedStyle(element);\n" +
+                    "  return style.visibility !== 'hidden' && style.visibility !== 'collapse' && parseFloat(style.opacity) !== 0;\n" +
+                    "}\n" +
+                    "function check() {\n" +
+                    "  var states = [], done = true;\n" +
+                    "  for (var i = 0; i < locators.length; i++) {\n" +
+                    "    var element = null;\n" +
+                    "    try { element = find(locators[i][0], locators[i][1]); } catch (e) { element = null; }\n" +
+                    "    var state = element === null ? 'NOT_PRESENT' : isVisible(element) ? 'VISIBLE' : 'NOT_VISIBLE';\n" +
+                    "    done = done && state === 'VISIBLE';\n" +
+                    "    states.push(state);\n" +
+                    "  }\n" +
+                    "  if (done || Date.now() - start >= timeout) { callback(states); } else { setTimeout(check, 100); }\n" +
+                    "}\n" +
+                    "check();";
+
+    private BatchElementVerifier() {
+    }
+
+    /**
+     * This function checks all given elements in the current frame with one round trip to the browser,
+     * instead of waiting for each element separately.
+     *
+     * @param driver   driver in which elements are checked.
+     * @param elements map of element name and its locator.
+     * @param timeout  how long to wait for all elements to become present and visible.
+     * @return map of element name and its state, in the same order as given map.
+     */
+    public static Map<String, ElementState> verify(WebDriver driver, Map<String, By> elements, Duration timeout) {
+        Map<String, ElementState> results = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        List<List<Object>> locators = new ArrayList<>();
+
+        for (Map.Entry<String, By> element : elements.entrySet()) {
+            if (element.getValue() instanceof By.Remotable) {
+                By.Remotable.Parameters parameters = ((By.Remotable) element.getValue()).getRemoteParameters();
+                names.add(element.getKey());
+                locators.add(Arrays.asList(parameters.using(), parameters.value()));
+                results.put(element.getKey(), null);
+            } else {
+                results.put(element.getKey(), ElementState.UNSUPPORTED);
+            }
+        }
+
+        if (!locators.isEmpty()) {
+            List<?> states = (List<?>) ((JavascriptExecutor) driver).executeAsyncScript(VERIFY_SCRIPT, locators, timeout.toMillis());
+            for (int i = 0; i < names.size(); i++) {
+                results.put(names.get(i), ElementState.valueOf(String.valueOf(states.get(i))));
+            }
+        }
+        return results;
+    }
+}
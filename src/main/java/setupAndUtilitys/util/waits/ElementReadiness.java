@@ -0,0 +1,76 @@
+package setupAndUtilitys.util.waits;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class ElementReadiness {
+
+    /**
+     * Script is executed in one async round trip. It scrolls the element into view and then checks it on every
+     * animation frame until it's stable:
+     * - bounding box is the same in two frames in a row
+     * - there are no running CSS transitions/animations on the element or its parents
+     * - element is not covered by another element (checked in the middle of the element)
+     * If the element is not stable before the deadline, callback is still called, so the caller can continue with
+     * its own checks and report proper error.
+     */
+    private static final String READINESS_SCRIPT =
+            "var element = arguments[0], timeout = arguments[1], callback = arguments[arguments.length - 1];\n" +
+                    "var start = Date.now(), lastRect = null, stableFrames = 0;\n" +
+                    "if (element.scrollIntoViewIfNeeded) { element.scrollIntoViewIfNeeded(); } else { element.scrollIntoView({block: 'center'}); }\n" +
+                    "function isAnimating() {\n" +
+                    "  if (!document.getAnimations) { return false; }\n" +
+                    "  return document.getAnimations().some(function (a) {\n" +
+                    "    var target = a.effect && a.effect.target;\n" +
+                    "    return a.playState === 'running' && target && target.contains && target.contains(element);\n" +
+                    "  });\n" +
+                    "}\n" +
+                    "function isCovered(rect) {\n" +
+                    "  var x = rect.left + rect.width / 2, y = rect.top + rect.height / 2;\n" +
+                    "  if (x < 0 || y < 0 || x > window.innerWidth || y > window.innerHeight) { return false; }\n" +
+                    "  var hit = document.elementFromPoint(x, y);\n" +
+                    "  return hit !== null && hit !== element && !element.contains(hit);\n" +
+                    "}\n" +
+                    "function nextFrame(check) {\n" +
+                    "  var done = false, run = function () { if (!done) { done = true; check(); } };\n" +
+                    "  window.requestAnimationFrame(run); setTimeout(run, 50);\n" +
+                    "}\n" +
+                    "function check() {\n" +
+                    "  if (!element.isConnected) { callback({stable: false, reason: 'detached'}); return; }\n" +
+                    "  var rect = element.getBoundingClientRect();\n" +
+                    "  var same = lastRect !== null && rect.top === lastRect.top && rect.left === lastRect.left\n" +
+                    "      && rect.width === lastRect.width && rect.height === lastRect.height;\n" +
+                    "  stableFrames = same ? stableFrames + 1 : 0;\n" +
+                    "  lastRect = rect;\n" +
+                    "  var reason = stableFrames < 1 ? 'moving' : isAnimating() ? 'animating' : isCovered(rect) ? 'covered' : null;\n" +
+                    "  if (reason === null) { callback({stable: true, reason: 'stable'}); return; }\n" +
+                    "  if (Date.now() - start >= timeout) { callback({stable: false, reason: reason}); return; }\n" +
+                    "  nextFrame(check);\n" +
+                    "}\n" +
+                    "nextFrame(check);";
+
+    private ElementReadiness() {
+    }
+
+    /**
+     * This function is used instead of fixed sleep after scrolling. It will return as soon as the element is
+     * stable, or once the timeout passes. Time that was spent waiting is recorded in WaitStatistics for given locator.
+     *
+     * @param driver  driver in which element is.
+     * @param element element that should be scrolled into view and become stable.
+     * @param locator locator of the element, used for statistics.
+     * @param timeout maximum time to wait for element to become stable.
+     * @return true if element became stable before timeout.
+     */
+    public static boolean scrollIntoViewAndWaitUntilStable(WebDriver driver, WebElement element, By locator, Duration timeout) {
+        long start = System.nanoTime();
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(READINESS_SCRIPT, element, timeout.toMillis());
+        WaitStatistics.record(locator.toString(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return result instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) result).get("stable"));
+    }
+}
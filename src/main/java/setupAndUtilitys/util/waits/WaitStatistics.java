@@ -0,0 +1,95 @@
+package setupAndUtilitys.util.waits;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WaitStatistics {
+
+    /**
+     * This class collects how long waits actually took and how many polls they needed, grouped by locator,
+     * so slow locators and polling interval can be tuned after the run instead of guessing. It's shared by all threads.
+     *
+     * @statistics -> map of locator (By.toString()) and collected times for that locator.
+     */
+    private static final Map<String, Entry> statistics = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(WaitStatistics.class);
+
+    private WaitStatistics() {
+    }
+
+    /**
+     * @param locator      locator of the element that was waited for.
+     * @param milliseconds how long the wait took.
+     */
+    public static void record(String locator, long milliseconds) {
+        record(locator, milliseconds, 1);
+    }
+
+    /**
+     * @param locator      locator or condition that was waited for.
+     * @param milliseconds how long the wait took.
+     * @param polls        how many times the condition was checked during the wait.
+     */
+    public static void record(String locator, long milliseconds, int polls) {
+        statistics.computeIfAbsent(locator, key -> new Entry()).add(milliseconds, polls);
+    }
+
+    public static Map<String, Entry> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * This will write to the log the locators that took the most time in total.
+     *
+     * @param numberOfLocators how many of the slowest locators should be written.
+     */
+    public static void logSlowestLocators(int numberOfLocators) {
+        statistics.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entry> e) -> e.getValue().getTotalMillis()).reversed())
+                .limit(numberOfLocators)
+                .forEach(e -> logger.info("{} -> {}", e.getKey(), e.getValue()));
+    }
+
+    public static class Entry {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final LongAdder totalPolls = new LongAdder();
+
+        void add(long milliseconds, int polls) {
+            count.increment();
+            totalMillis.add(milliseconds);
+            totalPolls.add(polls);
+            maxMillis.accumulateAndGet(milliseconds, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalMillis() {
+            return totalMillis.sum();
+        }
+
+        public long getMaxMillis() {
+            return maxMillis.get();
+        }
+
+        public long getTotalPolls() {
+            return totalPolls.sum();
+        }
+
+        @Override
+        public String toString() {
+            long waits = getCount();
+            return "waits: " + waits + ", total: " + getTotalMillis() + " ms, average: "
+                    + (waits == 0 ? 0 : getTotalMillis() / waits) + " ms, max: " + getMaxMillis() + " ms, polls: " + getTotalPolls();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package setupAndUtilitys.util.waits;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class Waiter {
+
+    /**
+     * Each thread has one Waiter for the driver it's using, so waits don't allocate new WebDriverWait objects and
+     * page objects in parallel threads don't change each other's timeouts. Every call passes its own timeout and polling.
+     *
+     * @waiters -> Waiter of the current thread.
+     * @lastPollCount -> how many times condition was checked in the last wait of this Waiter.
+     */
+    private static final ThreadLocal<Waiter> waiters = new ThreadLocal<>();
+
+    private final WebDriver driver;
+    private int lastPollCount;
+
+    private Waiter(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * @param driver driver of the current thread.
+     * @return Waiter of the current thread for the given driver.
+     */
+    public static Waiter forDriver(WebDriver driver) {
+        Waiter waiter = waiters.get();
+        if (waiter == null || waiter.driver != driver) {
+            waiter = new Waiter(driver);
+            waiters.set(waiter);
+        }
+        return waiter;
+    }
+
+    /**
+     * This function will check the condition until it returns value that is not null or false, or until the timeout passes.
+     * Like WebDriverWait, NotFoundException thrown by the condition is ignored until the timeout.
+     * Number of polls and time are recorded in WaitStatistics for that condition.
+     *
+     * @param condition condition that is checked, ex. ExpectedConditions.visibilityOfElementLocated(by).
+     * @param timeout   how long to wait for the condition.
+     * @param polling   how long to sleep between two checks.
+     * @return value returned by the condition.
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, Duration timeout, Duration polling) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        int polls = 0;
+        NotFoundException lastException = null;
+
+        while (true) {
+            polls++;
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    finish(condition, start, polls);
+                    return value;
+                }
+            } catch (NotFoundException e) {
+                lastException = e;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                finish(condition, start, polls);
+                throw new TimeoutException("Expected condition failed: waiting for " + condition + " (tried " + polls
+                        + " times with " + polling.toMillis() + " ms interval)", lastException);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, polling.toNanos()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " + condition, e);
+            }
+        }
+    }
+
+    public int getLastPollCount() {
+        return lastPollCount;
+    }
+
+    private void finish(Object condition, long start, int polls) {
+        lastPollCount = polls;
+        WaitStatistics.record(String.valueOf(condition), Duration.ofNanos(System.nanoTime() - start).toMillis(), polls);
+    }
+}
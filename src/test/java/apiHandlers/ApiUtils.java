@@ -1,157 +1,155 @@
 package apiHandlers;
 
 import apiPOJO.exampleOnePojo.auth.AuthResources;
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import setupAndUtilitys.util.JsonFixtures;
 import setupAndUtilitys.util.Resources;
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
-import io.restassured.config.HttpClientConfig;
 import io.restassured.config.RestAssuredConfig;
-import io.restassured.filter.log.RequestLoggingFilter;
-import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.http.ContentType;
 import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
 import org.json.JSONException;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
-import org.skyscreamer.jsonassert.Customization;
-import org.skyscreamer.jsonassert.JSONAssert;
-import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.skyscreamer.jsonassert.comparator.CustomComparator;
+import org.skyscreamer.jsonassert.JSONCompareResult;
 import org.testng.Assert;
 import org.testng.asserts.SoftAssert;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static apiHandlers.testDataBuilder.login.LoginAuth.loginAuthorization;
 import static io.restassured.RestAssured.given;
 
 public class ApiUtils {
 
-    private static RequestSpecification req;
-    private static PrintStream log;
+    /**
+     * @baseSpecifications -> specifications with base URI, logging filters and content type, built once per base URI.
+     * Requests and responses are logged by AsyncApiLogger, so logging never blocks the calling thread.
+     * @authorizedSpecifications -> base specification with Authorization header, built once per account type and token.
+     * @responseSpecifications -> response specifications, built once per expected status code.
+     * Cached specifications are never changed, every method returns a copy of them to which per-call values
+     * (query params, headers, body) are added. That way parallel threads never share the same specification object.
+     * @objectMapper -> one configured mapper shared by all threads.
+     * @objectReaders -> readers for model classes, created once per class.
+     */
+    private static final Map<String, RequestSpecification> baseSpecifications = new ConcurrentHashMap<>();
+    private static final Map<String, AuthorizedSpecification> authorizedSpecifications = new ConcurrentHashMap<>();
+    private static final Map<Integer, ResponseSpecification> responseSpecifications = new ConcurrentHashMap<>();
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final Map<Class<?>, ObjectReader> objectReaders = new ConcurrentHashMap<>();
+    private static final RestAssuredConfig config = RestAssuredConfig.config()
+            .httpClient(HttpConnectionPool.httpClientConfig()
+                    .setParam("http.socket.timeout", 10000)
+                    .setParam("http.connection.timeout", 10000));
 
 
     /**
-     * @return the configuration for timeout before the error is thrown.
+     * @return the configuration for timeout before the error is thrown. All requests use pooled keep-alive connections from HttpConnectionPool.
      */
     private static RestAssuredConfig apiTimeout() {
-        RestAssuredConfig config;
-
-        config = RestAssuredConfig.config()
-                .httpClient(HttpClientConfig.httpClientConfig()
-                        .setParam("http.socket.timeout", 10000)
-                        .setParam("http.connection.timeout", 10000));
-
         return config;
     }
 
     /**
-     * Write everything into logging. Text file.
+     * Token is taken from TokenCache, login is done only when there is no token for the account or it's about to expire.
+     *
+     * @return access token for admin account.
      */
-    static {
-        try {
-            log = new PrintStream(new FileOutputStream("logging.text"));
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
+    public static String getToken() {
+        return getToken("admin");
     }
 
-    public static String getToken() {
+    /**
+     * @param accountType account type for which we want the token, ex. admin or client.
+     * @return access token for given account, taken from TokenCache.
+     */
+    public static String getToken(String accountType) {
+        return TokenCache.getToken(accountType, ApiUtils::login);
+    }
+
+    /**
+     * @param accountType account type with which we log in.
+     * @return body of the login response.
+     */
+    private static String login(String accountType) {
         String resource = AuthResources.login.getResource();
         RestAssured.baseURI = Resources.stagingAPIConnection.getResource();
 
-        String responseForToken = POST(AddPayloadWithObject(loginAuthorization("admin")), resource, 200).asString();
-
-        JsonPath accessToken = new JsonPath(responseForToken);
-        return accessToken.getString("access_token");
+        return POST(AddPayloadWithObject(loginAuthorization(accountType)), resource, 200).asString();
     }
 
-    public static String getToken(String accountType) {
-        String resource = AuthResources.login.getResource();
-        RestAssured.baseURI = Resources.stagingAPIConnection.getResource();
+    /**
+     * @param baseURI base URI of the API.
+     * @return shared specification for given base URI. It must not be changed, use copyOf() to add per-call values.
+     */
+    private static RequestSpecification baseSpecification(String baseURI) {
+        return baseSpecifications.computeIfAbsent(baseURI, uri -> new RequestSpecBuilder().setBaseUri(uri)
+                .addFilter(AsyncApiLogger.requestFilter())
+                .addFilter(AsyncApiLogger.responseFilter())
+                .addFilter(HttpConnectionPool.releaseConnectionFilter())
+                .setContentType(ContentType.JSON)
+                .build());
+    }
 
-        String responseForToken = POST(AddPayloadWithObject(loginAuthorization(accountType)), resource, 200).asString();
+    /**
+     * @param accountType account type for which token is used.
+     * @return shared specification for staging API with Authorization header of given account.
+     * It's built again only when the token of that account changes.
+     */
+    private static RequestSpecification authorizedSpecification(String accountType) {
+        String token = getToken(accountType);
+        AuthorizedSpecification authorizedSpecification = authorizedSpecifications.get(accountType);
+        if (authorizedSpecification == null || !Objects.equals(authorizedSpecification.token, token)) {
+            authorizedSpecification = new AuthorizedSpecification(token, new RequestSpecBuilder()
+                    .addRequestSpecification(baseSpecification(Resources.stagingAPIConnection.getResource()))
+                    .addHeader("Authorization", "Bearer " + token)
+                    .build());
+            authorizedSpecifications.put(accountType, authorizedSpecification);
+        }
+        return authorizedSpecification.specification;
+    }
 
-        JsonPath accessToken = new JsonPath(responseForToken);
-        return accessToken.getString("access_token");
+    /**
+     * @param specification shared specification.
+     * @return new specification with all values of the given one, which can be changed without affecting other threads.
+     */
+    private static RequestSpecification copyOf(RequestSpecification specification) {
+        return given().spec(specification);
     }
 
     public static RequestSpecification requestSpecificationWithHeader() {
-        req = null;
-        req = new RequestSpecBuilder().setBaseUri(Resources.stagingAPIConnection.getResource())
-                .addFilter(RequestLoggingFilter.logRequestTo(log))
-                .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                .setContentType(ContentType.JSON)
-                .build()
-                .header("Authorization", "Bearer " + getToken());
-        return req;
+        return requestSpecificationWithHeader("admin");
     }
 
     public static RequestSpecification requestSpecificationWithoutHeader(String baseURI) {
-        req = null;
-        req = new RequestSpecBuilder().setBaseUri(baseURI)
-                .addFilter(RequestLoggingFilter.logRequestTo(log))
-                .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                .setContentType(ContentType.JSON)
-                .build();
-        return req;
+        return copyOf(baseSpecification(baseURI));
     }
 
     public static RequestSpecification requestSpecificationWithHeader(String accountType) {
-        req = null;
-        req = new RequestSpecBuilder().setBaseUri(Resources.stagingAPIConnection.getResource())
-                .addFilter(RequestLoggingFilter.logRequestTo(log))
-                .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                .setContentType(ContentType.JSON)
-                .build()
-                .header("Authorization", "Bearer " + getToken(accountType));
-        return req;
+        return copyOf(authorizedSpecification(accountType));
     }
 
     public static RequestSpecification requestSpecification() {
-        req = null;
-        req = new RequestSpecBuilder().setBaseUri(Resources.stagingAPIConnection.getResource())
-                .addFilter(RequestLoggingFilter.logRequestTo(log))
-                .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                .setContentType(ContentType.JSON)
-                .build();
-        return req;
+        return copyOf(baseSpecification(Resources.stagingAPIConnection.getResource()));
     }
 
     public static RequestSpecification requestSpecificationWithURI(String URI) {
-        req = null;
-        req = new RequestSpecBuilder().setBaseUri(URI)
-                .addFilter(RequestLoggingFilter.logRequestTo(log))
-                .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                .setContentType(ContentType.JSON)
-                .build();
-        return req;
+        return copyOf(baseSpecification(URI));
     }
 
     private static RequestSpecification requestSpecificationWithQueryParam(String paramName, String paramValue) {
-        if (req == null) {
-            req = new RequestSpecBuilder().setBaseUri(Resources.stagingAPIConnection.getResource())
-                    .addQueryParam(paramName, paramValue)
-                    .addFilter(RequestLoggingFilter.logRequestTo(log))
-                    .addFilter(ResponseLoggingFilter.logResponseTo(log))
-                    .setContentType(ContentType.JSON)
-                    .build();
-            return req;
-        }
-        return req;
+        return requestSpecification().queryParam(paramName, paramValue);
     }
 
     public static RequestSpecification requestSpecWithQueryParams(String parameterName, String parameterValue) {
@@ -317,7 +315,7 @@ public class ApiUtils {
     }
 
     private static ResponseSpecification responseSpecification(int statusCode) {
-        return new ResponseSpecBuilder().expectStatusCode(statusCode).build();
+        return responseSpecifications.computeIfAbsent(statusCode, code -> new ResponseSpecBuilder().expectStatusCode(code).build());
     }
 
 
@@ -411,96 +409,112 @@ public class ApiUtils {
         return response;
     }
 
+    /**
+     * @return shared mapper that is already configured. It's thread safe, but it must not be configured again,
+     * because it's used by all threads.
+     */
     protected static ObjectMapper getObjectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return objectMapper;
     }
 
+    /**
+     * @param modelClass class into which JSON is read, ex. Root[].class.
+     * @return reader for given class. It's created once per class, so the class is introspected only once.
+     */
+    protected static ObjectReader readerFor(Class<?> modelClass) {
+        return objectReaders.computeIfAbsent(modelClass, objectMapper::readerFor);
+    }
+
+    /**
+     * If expected JSON comes from parseJsonFromLocal, its cached tree is used and only actual JSON is parsed.
+     */
     public static boolean compareTwoJsonFiles(String expected, String actual) {
-        //Path example: "[*].id"
-        try {
-            JSONAssert.assertEquals(expected, actual,
-                    new CustomComparator(JSONCompareMode.STRICT));
-        } catch (JSONException e) {
-            Assert.fail(e.getMessage());
-            return false;
-        }
-        return true;
+        return assertJsonComparison(() -> JsonFixtures.compare(expected, actual));
     }
 
     public static boolean compareTwoJsonFilesAndIgnoreOneParam(String expected, String actual, String path) {
         //Path example: "[*].id"
+        return assertJsonComparison(() -> JsonFixtures.compare(expected, actual, path));
+    }
+
+    /**
+     * @param pathToExpectedJSON path to the expected JSON that is stored in the project. It's read and parsed only once.
+     * @param actual             JSON that is compared to the expected one.
+     * @param ignoredPaths       paths of values that are not compared, ex. "[*].id".
+     */
+    public static boolean compareJsonWithFixture(String pathToExpectedJSON, String actual, String... ignoredPaths) {
+        return assertJsonComparison(() -> JsonFixtures.compareWithFixture(pathToExpectedJSON, actual, ignoredPaths));
+    }
+
+    private static boolean assertJsonComparison(JsonComparison comparison) {
+        JSONCompareResult result;
         try {
-            JSONAssert.assertEquals(expected, actual,
-                    new CustomComparator(JSONCompareMode.STRICT,
-                            new Customization(path, (o1, o2) -> true)));
-        } catch (JSONException e) {
+            result = comparison.compare();
+        } catch (JSONException | IOException | ParseException e) {
             Assert.fail(e.getMessage());
             return false;
         }
+        if (result.failed()) {
+            Assert.fail(result.getMessage());
+        }
         return true;
     }
 
+    private interface JsonComparison {
+        JSONCompareResult compare() throws JSONException, IOException, ParseException;
+    }
+
 
     /**
      * @param response   expected response from request.
      * @param modelClass class that you are working with and from which you want to use getter %class.class.
-     * @return type is Object, you can use it after to iterate through and extract desired value.
+     * @return object of given class, you can use it after to iterate through and extract desired value.
+     * Body is read from the response bytes with the cached reader, without making a String copy of it first.
      */
-    public static <T> Object deserializeResponse(Response response, Class<T> modelClass) throws JsonProcessingException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-        objectMapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
-
-        return objectMapper.readValue(response.asString(), modelClass);
+    public static <T> T deserializeResponse(Response response, Class<T> modelClass) throws IOException {
+        return readerFor(modelClass).readValue(response.asByteArray());
     }
 
+    /**
+     * @param filePath path to the JSON file that is stored in the project.
+     * @return JSON text of the file. File is read once and shared by all threads, until it's changed.
+     */
     public static String parseJsonFromLocal(String filePath) throws IOException, ParseException {
-        org.json.simple.parser.JSONParser parser = new JSONParser();
-        JSONObject data = (JSONObject) parser.parse(
-                new FileReader(filePath));
-        return data.toJSONString();
+        return JsonFixtures.getJson(filePath);
     }
 
     /**
+     * Full paths of all fields are compared (ex. "/result/*" + "/reference"), so a field with the same name
+     * in another object doesn't hide a missing one. Structure of the expected file is cached until the file changes.
+     *
      * @param pathToExpectedJSONStructure path to the expected JSON that is stored in the project
      * @param response                    response that will be parsed and compared to the expected structure.
      */
-    public static void compareStructureOfTwoJSONs(String pathToExpectedJSONStructure, Response response) throws IOException, ParseException {
-        JsonFactory factoryForExpectedJSON = new JsonFactory();
+    public static void compareStructureOfTwoJSONs(String pathToExpectedJSONStructure, Response response) throws IOException {
         SoftAssert softAssert = new SoftAssert();
 
-        List<String> keysForExpectedJSONStructure = new ArrayList<>();
-        JsonParser jsonParserForExpected = factoryForExpectedJSON.createParser(parseJsonFromLocal(pathToExpectedJSONStructure));
-        while (!jsonParserForExpected.isClosed()) {
-            if (jsonParserForExpected.nextToken() == JsonToken.FIELD_NAME) {
-                keysForExpectedJSONStructure.add((jsonParserForExpected.getCurrentName()));
-            }
-        }
+        JsonStructureComparator.Difference difference = JsonStructureComparator.compare(
+                JsonStructureComparator.structureOfFile(pathToExpectedJSONStructure),
+                JsonStructureComparator.structureOf(response.asByteArray()));
 
-        List<String> keysForResponse = new ArrayList<>();
-        JsonParser jsonParserForResponse = factoryForExpectedJSON.createParser(response.asString());
-        while (!jsonParserForResponse.isClosed()) {
-            if (jsonParserForResponse.nextToken() == JsonToken.FIELD_NAME) {
-                keysForResponse.add((jsonParserForResponse.getCurrentName()));
-            }
+        for (String path : difference.getMissing()) {
+            softAssert.fail("The response structure doesn't contain: " + path + " key.");
         }
-
-        if (keysForExpectedJSONStructure.size() == keysForResponse.size()) {
-            for (String k : keysForExpectedJSONStructure) {
-                if (!keysForResponse.contains(k)) {
-                    softAssert.fail("The response structure doesn't contain: " + k + " key.");
-                }
-            }
-        } else {
-            softAssert.fail("The JSON structure size isn't matching. It should have: "
-                    + keysForExpectedJSONStructure.size()
-                    + " keys, but it have: " + keysForResponse.size());
+        for (String path : difference.getExtra()) {
+            softAssert.fail("The response structure contains unexpected: " + path + " key.");
         }
         softAssert.assertAll();
     }
 
 
+    private static class AuthorizedSpecification {
+        private final String token;
+        private final RequestSpecification specification;
+
+        AuthorizedSpecification(String token, RequestSpecification specification) {
+            this.token = token;
+            this.specification = specification;
+        }
+    }
+
 }
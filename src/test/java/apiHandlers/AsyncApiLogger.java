@@ -0,0 +1,310 @@
+package apiHandlers;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.filter.log.RequestLoggingFilter;
+import io.restassured.filter.log.ResponseLoggingFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class AsyncApiLogger {
+
+    /**
+     * Request and response of every API call are written to the log file without blocking the thread that made the call.
+     * Each thread formats its own request/response into one record and puts it into its own ring buffer.
+     * One background thread takes records from all buffers and writes them to the file, so records of parallel
+     * scenarios never interleave and tests never wait on the disk. If a buffer is full the record is dropped and counted.
+     *
+     * @logFile -> file into which records are written. Older files are rotated to logFile.1, logFile.2...etc.
+     * @maxFileSize -> once the file is bigger than this (in bytes) it's rotated.
+     * @maxFiles -> how many rotated files are kept.
+     * @maxRecordLength -> longer records (mostly big bodies) are truncated to this many characters.
+     * @bodySampleRate -> share of calls (0.0 - 1.0) that are logged with headers and body, others only with URI and status.
+     * @bufferSize -> number of records each thread can have waiting for the writer.
+     * @scenarioName -> name of the scenario that runs on the thread, it's added to every record.
+     */
+    private static final Path logFile = Paths.get(Resources.apiLogFile.getResource());
+    private static final long maxFileSize = Long.parseLong(Resources.apiLogMaxFileSizeMb.getResource()) * 1024 * 1024;
+    private static final int maxFiles = Integer.parseInt(Resources.apiLogMaxFiles.getResource());
+    private static final int maxRecordLength = Integer.parseInt(Resources.apiLogMaxRecordLength.getResource());
+    private static final double bodySampleRate = Double.parseDouble(Resources.apiLogBodySampleRate.getResource());
+    private static final int bufferSize = Integer.parseInt(Resources.apiLogBufferSize.getResource());
+
+    private static final Queue<RingBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<ThreadLog> threadLog = ThreadLocal.withInitial(ThreadLog::new);
+    private static final ThreadLocal<String> scenarioName = new ThreadLocal<>();
+    private static final LongAdder droppedRecords = new LongAdder();
+    private static final Logger logger = LoggerFactory.getLogger(AsyncApiLogger.class);
+    private static final Filter requestFilter = AsyncApiLogger::logRequest;
+    private static final Filter responseFilter = AsyncApiLogger::logResponse;
+
+    private static final Writer writer = new Writer();
+
+    static {
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "api-log-shutdown"));
+    }
+
+    private AsyncApiLogger() {
+    }
+
+    /**
+     * Request filter must be added before the response filter, so the response is logged inside the same record.
+     *
+     * @return filter that logs the request, shared by all specifications and threads.
+     */
+    public static Filter requestFilter() {
+        return requestFilter;
+    }
+
+    /**
+     * @return filter that logs the response, shared by all specifications and threads.
+     */
+    public static Filter responseFilter() {
+        return responseFilter;
+    }
+
+    /**
+     * @param name name of the scenario that is running on the current thread. Every API call that is made
+     *             from this thread is tagged with it, until clearScenario() is called.
+     */
+    public static void setScenario(String name) {
+        scenarioName.set(name);
+    }
+
+    public static void clearScenario() {
+        scenarioName.remove();
+    }
+
+    /**
+     * @return number of records that were dropped because the writer couldn't keep up.
+     */
+    public static long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    private static Response logRequest(FilterableRequestSpecification requestSpec,
+                                       FilterableResponseSpecification responseSpec,
+                                       FilterContext context) {
+        ThreadLog log = threadLog.get();
+        if (log.inProgress) {
+            return context.next(requestSpec, responseSpec);
+        }
+        log.start();
+        try {
+            return (log.withBody ? log.fullRequest : log.shortRequest).filter(requestSpec, responseSpec, context);
+        } finally {
+            log.finish();
+        }
+    }
+
+    private static Response logResponse(FilterableRequestSpecification requestSpec,
+                                        FilterableResponseSpecification responseSpec,
+                                        FilterContext context) {
+        ThreadLog log = threadLog.get();
+        if (!log.inProgress) {
+            return context.next(requestSpec, responseSpec);
+        }
+        return (log.withBody ? log.fullResponse : log.shortResponse).filter(requestSpec, responseSpec, context);
+    }
+
+    /**
+     * Everything that belongs to the current thread: REST Assured logging filters that print into the thread's own
+     * memory stream, and the ring buffer into which finished records are put.
+     */
+    private static class ThreadLog {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final PrintStream stream = new PrintStream(output, true);
+        private final RequestLoggingFilter fullRequest = new RequestLoggingFilter(LogDetail.ALL, stream);
+        private final RequestLoggingFilter shortRequest = new RequestLoggingFilter(LogDetail.URI, stream);
+        private final ResponseLoggingFilter fullResponse = new ResponseLoggingFilter(LogDetail.ALL, stream);
+        private final ResponseLoggingFilter shortResponse = new ResponseLoggingFilter(LogDetail.STATUS, stream);
+        private final RingBuffer buffer = new RingBuffer(Thread.currentThread(), bufferSize);
+        private boolean inProgress;
+        private boolean withBody;
+
+        ThreadLog() {
+            buffers.add(buffer);
+        }
+
+        void start() {
+            inProgress = true;
+            withBody = bodySampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < bodySampleRate;
+            output.reset();
+        }
+
+        void finish() {
+            inProgress = false;
+            String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+            if (text.length() > maxRecordLength) {
+                text = text.substring(0, maxRecordLength) + System.lineSeparator()
+                        + "... truncated " + (text.length() - maxRecordLength) + " characters";
+            }
+            String record = "[" + LocalDateTime.now() + "] [" + Thread.currentThread().getName() + "] ["
+                    + (scenarioName.get() == null ? "no scenario" : scenarioName.get()) + "]" + System.lineSeparator()
+                    + text + System.lineSeparator();
+            if (!buffer.offer(record)) {
+                droppedRecords.increment();
+            }
+        }
+    }
+
+    /**
+     * Lock-free ring buffer with one producer (thread that owns it) and one consumer (writer thread).
+     * Producer never waits, if there is no free slot offer() returns false.
+     */
+    private static class RingBuffer {
+        private final Thread owner;
+        private final String[] records;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        RingBuffer(Thread owner, int size) {
+            this.owner = owner;
+            int capacity = Integer.highestOneBit(Math.max(2, size - 1) << 1);
+            this.records = new String[capacity];
+            this.mask = capacity - 1;
+        }
+
+        boolean offer(String record) {
+            long currentTail = tail.get();
+            if (currentTail - head.get() >= records.length) {
+                return false;
+            }
+            records[(int) (currentTail & mask)] = record;
+            tail.lazySet(currentTail + 1);
+            return true;
+        }
+
+        /**
+         * @return next record, or null if the buffer is empty.
+         */
+        String poll() {
+            long currentHead = head.get();
+            if (currentHead == tail.get()) {
+                return null;
+            }
+            int index = (int) (currentHead & mask);
+            String record = records[index];
+            records[index] = null;
+            head.lazySet(currentHead + 1);
+            return record;
+        }
+
+        boolean isAbandoned() {
+            return !owner.isAlive() && head.get() == tail.get();
+        }
+    }
+
+    /**
+     * Background thread that drains all ring buffers into the log file and rotates it once it's too big.
+     */
+    private static class Writer extends Thread {
+        private volatile boolean running = true;
+        private OutputStream file;
+        private long fileSize;
+
+        Writer() {
+            super("api-log-writer");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                open();
+                while (running) {
+                    if (drain() == 0) {
+                        file.flush();
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                    }
+                }
+                drain();
+                file.close();
+            } catch (IOException e) {
+                logger.error("API logging stopped, unable to write to {}: {}", logFile, e.toString());
+            }
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(this);
+            try {
+                join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (getDroppedRecords() > 0) {
+                logger.warn("{} API log records were dropped because the log writer couldn't keep up.", getDroppedRecords());
+            }
+        }
+
+        private int drain() throws IOException {
+            int written = 0;
+            for (RingBuffer buffer : buffers) {
+                String record;
+                while ((record = buffer.poll()) != null) {
+                    write(record);
+                    written++;
+                }
+                if (buffer.isAbandoned()) {
+                    buffers.remove(buffer);
+                }
+            }
+            return written;
+        }
+
+        private void write(String record) throws IOException {
+            byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            if (fileSize > 0 && fileSize + bytes.length > maxFileSize) {
+                rotate();
+            }
+            file.write(bytes);
+            fileSize += bytes.length;
+        }
+
+        private void rotate() throws IOException {
+            file.close();
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path older = Paths.get(logFile + "." + i);
+                if (Files.exists(older)) {
+                    Files.move(older, Paths.get(logFile + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (maxFiles > 0) {
+                Files.move(logFile, Paths.get(logFile + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            open();
+        }
+
+        private void open() throws IOException {
+            file = new BufferedOutputStream(Files.newOutputStream(logFile), 64 * 1024);
+            fileSize = 0;
+        }
+    }
+}
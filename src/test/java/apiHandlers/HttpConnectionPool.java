@@ -0,0 +1,130 @@
+package apiHandlers;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import setupAndUtilitys.util.Resources;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@SuppressWarnings("deprecation")
+public class HttpConnectionPool {
+
+    /**
+     * One HTTP client with pooled keep-alive connections is shared by all API calls and all threads,
+     * so requests to the same host reuse already opened connections instead of doing TCP and TLS handshake every time.
+     * REST Assured 4 works with HttpClient 4 AbstractHttpClient, that's why DefaultHttpClient is used here.
+     *
+     * @connectionManager -> pool of connections, limited by apiMaxConnections and apiMaxConnectionsPerRoute.
+     * @openedConnections -> how many new connections (handshakes) were made since the start.
+     * @idleTimeout -> connection that is not used for this long is closed by the eviction thread.
+     */
+    private static final long idleTimeout = TimeUnit.SECONDS.toMillis(Long.parseLong(Resources.apiIdleConnectionTimeoutSeconds.getResource()));
+    private static final LongAdder openedConnections = new LongAdder();
+    private static final CountingConnectionManager connectionManager = new CountingConnectionManager(SchemeRegistryFactory.createDefault());
+    private static final DefaultHttpClient httpClient = new DefaultHttpClient(connectionManager);
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionPool.class);
+
+    static {
+        connectionManager.setMaxTotal(Integer.parseInt(Resources.apiMaxConnections.getResource()));
+        connectionManager.setDefaultMaxPerRoute(Integer.parseInt(Resources.apiMaxConnectionsPerRoute.getResource()));
+
+        httpClient.setKeepAliveStrategy((response, context) -> {
+            long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : idleTimeout;
+        });
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+        }, 5, 5, TimeUnit.SECONDS);
+    }
+
+    private HttpConnectionPool() {
+    }
+
+    /**
+     * @return REST Assured client configuration that always uses the shared pooled client.
+     */
+    public static HttpClientConfig httpClientConfig() {
+        return HttpClientConfig.httpClientConfig()
+                .httpClientFactory(() -> httpClient)
+                .reuseHttpClientInstance();
+    }
+
+    /**
+     * Connection goes back to the pool only once the whole response body is read. REST Assured reads the body lazily,
+     * so this filter reads it right after the response arrives (body stays available to the test) and the connection
+     * can't stay leased if the test never touches the body.
+     *
+     * @return filter that should be added to every request that uses httpClientConfig().
+     */
+    public static Filter releaseConnectionFilter() {
+        return (requestSpec, responseSpec, context) -> {
+            Response response = context.next(requestSpec, responseSpec);
+            response.asByteArray();
+            return response;
+        };
+    }
+
+    /**
+     * @return leased, available, pending and max connections of the whole pool.
+     */
+    public static PoolStats getPoolStatistics() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * @return how many new connections were opened, each of them is one TCP (and TLS for https) handshake.
+     */
+    public static long getOpenedConnections() {
+        return openedConnections.sum();
+    }
+
+    public static void logStatistics() {
+        logger.info("HTTP connection pool -> {}, opened connections: {}", getPoolStatistics(), getOpenedConnections());
+    }
+
+    private static class CountingConnectionManager extends PoolingClientConnectionManager {
+
+        CountingConnectionManager(SchemeRegistry schemeRegistry) {
+            super(schemeRegistry);
+        }
+
+        @Override
+        protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+            return new DefaultClientConnectionOperator(schemeRegistry) {
+                @Override
+                public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                           HttpContext context, HttpParams params) throws IOException {
+                    super.openConnection(connection, target, local, context, params);
+                    openedConnections.increment();
+                }
+            };
+        }
+    }
+}
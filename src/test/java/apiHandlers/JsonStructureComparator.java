@@ -0,0 +1,204 @@
+package apiHandlers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class JsonStructureComparator {
+
+    /**
+     * Structure of a JSON is the set of JSON pointer paths of all its fields, ex. "/merchant/name".
+     * Array indexes are replaced with "*", so all elements of an array are expected to have the same structure,
+     * no matter how many elements there are. Both documents are read only once with the streaming parser,
+     * and paths are compared as hash sets, so big responses are compared in linear time.
+     *
+     * @jsonFactory -> factory for streaming parsers, it's thread safe and shared.
+     * @expectedStructures -> structures of expected JSON files, read again only when the file is changed.
+     */
+    private static final JsonFactory jsonFactory = new JsonFactory();
+    private static final Map<Path, CachedStructure> expectedStructures = new ConcurrentHashMap<>();
+
+    private JsonStructureComparator() {
+    }
+
+    /**
+     * @param pathToExpectedJSONStructure path to the expected JSON that is stored in the project.
+     * @return structure of the expected JSON, taken from the cache if the file wasn't changed since it was read.
+     */
+    public static Structure structureOfFile(String pathToExpectedJSONStructure) throws IOException {
+        Path path = Paths.get(pathToExpectedJSONStructure).toAbsolutePath();
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        CachedStructure cached = expectedStructures.get(path);
+        if (cached == null || cached.lastModified != lastModified) {
+            try (JsonParser parser = jsonFactory.createParser(path.toFile())) {
+                cached = new CachedStructure(lastModified, read(parser));
+            }
+            expectedStructures.put(path, cached);
+        }
+        return cached.structure;
+    }
+
+    /**
+     * @param json JSON document, ex. body of the response.
+     * @return structure of the given document.
+     */
+    public static Structure structureOf(byte[] json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    /**
+     * @param expected structure that JSON should have.
+     * @param actual   structure that JSON has.
+     * @return paths that are missing and paths that are not expected. Paths under an array that is empty in one
+     * of the documents can't be checked, so they are not reported.
+     */
+    public static Difference compare(Structure expected, Structure actual) {
+        List<String> missing = new ArrayList<>();
+        for (String path : expected.paths) {
+            if (!actual.paths.contains(path) && !isInsideEmptyArray(path, actual)) {
+                missing.add(path);
+            }
+        }
+        List<String> extra = new ArrayList<>();
+        for (String path : actual.paths) {
+            if (!expected.paths.contains(path) && !isInsideEmptyArray(path, expected)) {
+                extra.add(path);
+            }
+        }
+        return new Difference(missing, extra);
+    }
+
+    private static boolean isInsideEmptyArray(String path, Structure structure) {
+        int index = path.indexOf("/*");
+        while (index >= 0) {
+            if (structure.emptyArrays.contains(path.substring(0, index))) {
+                return true;
+            }
+            index = path.indexOf("/*", index + 2);
+        }
+        return false;
+    }
+
+    /**
+     * One pass over the document. Stack holds every object/array that is open at the moment,
+     * arrays also remember if they had any element, so empty arrays can be recognized.
+     */
+    private static Structure read(JsonParser parser) throws IOException {
+        Set<String> paths = new HashSet<>();
+        Set<String> emptyArrays = new HashSet<>();
+        Deque<Container> containers = new ArrayDeque<>();
+        String fieldPath = "";
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            Container parent = containers.peek();
+            switch (token) {
+                case FIELD_NAME:
+                    fieldPath = parent.path + "/" + escape(parser.getCurrentName());
+                    paths.add(fieldPath);
+                    break;
+                case END_OBJECT:
+                    containers.pop();
+                    break;
+                case END_ARRAY:
+                    Container array = containers.pop();
+                    if (!array.hasElements) {
+                        emptyArrays.add(array.path);
+                    }
+                    break;
+                default:
+                    String valuePath = fieldPath;
+                    if (parent == null) {
+                        valuePath = "";
+                    } else if (parent.isArray) {
+                        valuePath = parent.path + "/*";
+                        parent.hasElements = true;
+                    }
+                    if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                        containers.push(new Container(valuePath, token == JsonToken.START_ARRAY));
+                    }
+                    break;
+            }
+        }
+        return new Structure(paths, emptyArrays);
+    }
+
+    /**
+     * Characters "~" and "/" in field names are escaped as in JSON pointer.
+     */
+    private static String escape(String name) {
+        return name.indexOf('~') < 0 && name.indexOf('/') < 0 ? name : name.replace("~", "~0").replace("/", "~1");
+    }
+
+    public static class Structure {
+        private final Set<String> paths;
+        private final Set<String> emptyArrays;
+
+        Structure(Set<String> paths, Set<String> emptyArrays) {
+            this.paths = paths;
+            this.emptyArrays = emptyArrays;
+        }
+
+        public Set<String> getPaths() {
+            return paths;
+        }
+    }
+
+    public static class Difference {
+        private final List<String> missing;
+        private final List<String> extra;
+
+        Difference(List<String> missing, List<String> extra) {
+            this.missing = missing;
+            this.extra = extra;
+        }
+
+        public List<String> getMissing() {
+            return missing;
+        }
+
+        public List<String> getExtra() {
+            return extra;
+        }
+
+        public boolean isEmpty() {
+            return missing.isEmpty() && extra.isEmpty();
+        }
+    }
+
+    private static class Container {
+        private final String path;
+        private final boolean isArray;
+        private boolean hasElements;
+
+        Container(String path, boolean isArray) {
+            this.path = path;
+            this.isArray = isArray;
+        }
+    }
+
+    private static class CachedStructure {
+        private final long lastModified;
+        private final Structure structure;
+
+        CachedStructure(long lastModified, Structure structure) {
+            this.lastModified = lastModified;
+            this.structure = structure;
+        }
+    }
+}
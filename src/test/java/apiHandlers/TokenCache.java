@@ -0,0 +1,144 @@
+package apiHandlers;
+
+import io.restassured.path.json.JsonPath;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public class TokenCache {
+
+    /**
+     * Tokens are cached per account type and shared by all threads, so authenticated calls don't log in every time.
+     * Token is refreshed shortly before it expires. Expiry is read from "expires_in" of the login response,
+     * or from "exp" claim if the token is JWT. If neither exists, DEFAULT_LIFETIME is used.
+     * If multiple threads need a new token for the same account at the same time, only one of them logs in.
+     *
+     * @REFRESH_BEFORE_EXPIRY -> token is refreshed this long before it actually expires (at most half of its lifetime).
+     * @DEFAULT_LIFETIME -> how long the token is used when the expiry is unknown.
+     */
+    private static final Duration REFRESH_BEFORE_EXPIRY = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(5);
+
+    private static final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder refreshes = new LongAdder();
+
+    private TokenCache() {
+    }
+
+    /**
+     * @param accountType account type for which token is needed, ex. admin or client.
+     * @param login       function that logs in with given account type and returns body of the login response.
+     * @return valid access token for given account type.
+     */
+    public static String getToken(String accountType, Function<String, String> login) {
+        CachedToken cachedToken = tokens.computeIfAbsent(accountType, key -> new CachedToken());
+        Token token = cachedToken.token;
+        if (token != null && token.isValid()) {
+            hits.increment();
+            return token.value;
+        }
+
+        synchronized (cachedToken) {
+            token = cachedToken.token;
+            if (token != null && token.isValid()) {
+                hits.increment();
+                return token.value;
+            }
+            if (token == null) {
+                misses.increment();
+            } else {
+                refreshes.increment();
+            }
+            token = parseLoginResponse(login.apply(accountType));
+            cachedToken.token = token.value == null ? null : token;
+            return token.value;
+        }
+    }
+
+    /**
+     * Use this when API returns 401 for the cached token, so next call logs in again.
+     *
+     * @param accountType account type for which token should be removed.
+     */
+    public static void invalidate(String accountType) {
+        CachedToken cachedToken = tokens.get(accountType);
+        if (cachedToken != null) {
+            cachedToken.token = null;
+        }
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    public static long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    public static String getStatistics() {
+        return "Token cache -> hits: " + getHits() + ", misses: " + getMisses() + ", refreshes: " + getRefreshes();
+    }
+
+    private static Token parseLoginResponse(String loginResponse) {
+        JsonPath jsonPath = new JsonPath(loginResponse);
+        String accessToken = jsonPath.getString("access_token");
+        long now = System.currentTimeMillis();
+        long expiresAt = now + DEFAULT_LIFETIME.toMillis();
+
+        String expiresIn = jsonPath.getString("expires_in");
+        Long jwtExpiry = accessToken == null ? null : readJwtExpiry(accessToken);
+        if (expiresIn != null) {
+            expiresAt = now + (long) (Double.parseDouble(expiresIn) * 1000);
+        } else if (jwtExpiry != null) {
+            expiresAt = Duration.ofSeconds(jwtExpiry).toMillis();
+        }
+        long refreshBeforeExpiry = Math.min(REFRESH_BEFORE_EXPIRY.toMillis(), (expiresAt - now) / 2);
+        return new Token(accessToken, expiresAt - refreshBeforeExpiry);
+    }
+
+    /**
+     * @return "exp" claim of the JWT in seconds, or null if the token is not JWT.
+     */
+    private static Long readJwtExpiry(String accessToken) {
+        String[] parts = accessToken.split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            String exp = new JsonPath(payload).getString("exp");
+            return exp == null ? null : Long.parseLong(exp);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static class CachedToken {
+        private volatile Token token;
+    }
+
+    private static class Token {
+        private final String value;
+        private final long refreshAt;
+
+        Token(String value, long refreshAt) {
+            this.value = value;
+            this.refreshAt = refreshAt;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() < refreshAt;
+        }
+    }
+}
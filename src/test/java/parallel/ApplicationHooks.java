@@ -1,10 +1,11 @@
 package parallel;
 
+import apiHandlers.AsyncApiLogger;
 import setupAndUtilitys.driverFactory.DriverFactory;
 import setupAndUtilitys.util.Resources;
-import setupAndUtilitys.util.jiraIntegration.JiraIntegration;
-import setupAndUtilitys.util.testRailIntegration.APIClient;
-import setupAndUtilitys.util.testRailIntegration.APIException;
+import setupAndUtilitys.util.jiraIntegration.JiraDefectFiler;
+import setupAndUtilitys.util.screenshots.ScreenshotCapture;
+import setupAndUtilitys.util.testRailIntegration.TestRailPublisher;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
@@ -12,20 +13,29 @@ import io.cucumber.plugin.ConcurrentEventListener;
 import io.cucumber.plugin.event.*;
 import org.junit.Rule;
 import org.junit.rules.TestName;
-import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-
-import static setupAndUtilitys.util.testRailIntegration.TestRailAccount.testRailApiClient;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class ApplicationHooks implements ConcurrentEventListener {
 
 
     private WebDriver driver;
+    private CompletableFuture<Path> screenshot;
+    private String screenshotName;
+    private final DriverFactory driverFactory = new DriverFactory();
 
     public ApplicationHooks() {
     }
@@ -42,9 +52,9 @@ public class ApplicationHooks implements ConcurrentEventListener {
      * @caseId -> This is the test case ID from the TestRail, and it has to be unique. It's connected via Cucumber feature file
      * from where we read it.
      * @errMsgList -> This will catch multiple errors in case we are doing softAssert.
+     * @attachedScreenshots -> screenshot files that are already embedded in the report.
      */
 
-    private static APIClient client = null;
     private static String runId = "1";
     private static final int FAIL_STATE = 5;
     private static final int SUCCESS_STATE = 1;
@@ -52,6 +62,8 @@ public class ApplicationHooks implements ConcurrentEventListener {
     private static final String FAILED_COMMENT = "This automated test failed due to following reasons: ";
     public static String caseId;
     public static String scenarioName;
+    private static final Set<Path> attachedScreenshots = ConcurrentHashMap.newKeySet();
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationHooks.class);
 
     @Rule
     public TestName testName = new TestName();
@@ -70,13 +82,25 @@ public class ApplicationHooks implements ConcurrentEventListener {
 //
 //    }
 
+    /**
+     * @param scenario is used to tag API log records that are made on this thread with the scenario name.
+     */
+    @Before(order = 0)
+    public void tagApiLogs(Scenario scenario) {
+        AsyncApiLogger.setScenario(scenario.getName());
+    }
+
+    @After(order = 0)
+    public void clearApiLogTag() {
+        AsyncApiLogger.clearScenario();
+    }
+
     /**
      * @browserName -> We're getting it from Resources Enum class.
      * @url -> We're reading from configuration property file and setting desired URL address.
      */
     @Before(order = 0, value = "@UI")
     public void launchBrowser() {
-        DriverFactory driverFactory = new DriverFactory();
         String browserName = Resources.browser.getResource();
         // String url = prop.getProperty("url");
         driver = driverFactory.init_driver(browserName);
@@ -85,28 +109,62 @@ public class ApplicationHooks implements ConcurrentEventListener {
 
 
     /**
-     * The order 0 will call quit on driver and close the browser.
+     * The order 0 will give the browser back to the DriverPool, where it's cleaned and reused by next scenario.
+     * Screenshot taken in tearDown is encoded while the browser is cleaned, and it's attached to the report after that.
+     *
+     * @param scenario is used to attach the screenshot.
      */
     @After(order = 0, value = "@UI")
-    public void quitBrowser() {
-        driver.quit();
+    public void quitBrowser(Scenario scenario) {
+        driverFactory.release_driver();
+        attachScreenshot(scenario);
+    }
+
+    /**
+     * Only screenshot that was really stored is attached, so the report doesn't link to a missing file.
+     * Each stored file is embedded in the report only once, scenarios with the same screen get the file name instead,
+     * so the report stays within screenshotBudgetMb.
+     */
+    private void attachScreenshot(Scenario scenario) {
+        if (screenshot == null) {
+            return;
+        }
+        try {
+            Path file = screenshot.get(Long.parseLong(Resources.screenshotAttachTimeoutSeconds.getResource()), TimeUnit.SECONDS);
+            if (file == null) {
+                scenario.log("Screenshot " + screenshotName + " isn't stored, see the log for the reason.");
+            } else if (attachedScreenshots.add(file)) {
+                scenario.attach(Files.readAllBytes(file), "image/jpeg", screenshotName);
+            } else {
+                scenario.log("Screenshot " + screenshotName + " is the same as " + file.getFileName() + ", attached to an earlier scenario.");
+            }
+        } catch (TimeoutException e) {
+            scenario.log("Screenshot " + screenshotName + " wasn't stored in time, it isn't attached.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | IOException e) {
+            logger.warn("Unable to attach screenshot {}: {}", screenshotName, e.toString());
+        }
     }
 
     /**
      * @param scenario is used to extract scenarioName.
      *                 scenarioName is used to set the name of the screenshot.
      *                 <p>
+     *                 Screenshot is taken according to screenshotPolicy (by default only of failed scenarios).
+     *                 It's encoded and stored in the background, and attached to the report in quitBrowser.
+     *                 <p>
      *                 We are also checking if scenario is passed and if the condition is true we remove recording.
      */
     @After(order = 1, value = "@UI")
     public void tearDown(Scenario scenario) throws Exception {
 
-        //if (scenario.isFailed() && scenario.) { ToDo -> Uncomment if you want scs only on failed
-        // take screenshot:
         scenarioName = scenario.getName().replaceAll(" ", "_");
-        byte[] sourcePath = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
-        scenario.attach(sourcePath, "image/png", scenarioName);
-        //}
+        if (ScreenshotCapture.shouldCapture(scenario.isFailed())) {
+            // take screenshot:
+            screenshot = ScreenshotCapture.capture((TakesScreenshot) driver);
+            screenshotName = scenarioName;
+        }
 
         //ToDo -> Uncomment if you enable screen recorder
 //        if (!scenario.isFailed()) {
@@ -119,7 +177,9 @@ public class ApplicationHooks implements ConcurrentEventListener {
     /**
      * @param testCaseFinished this is a event listener which will capture when cucumber test case is finished.
      * @finalResult -> This is extracted message that is written in assertion so that issue in JIRA has correct description.
-     * @data -> This is HashMap object created for TestRail integration
+     * Issue is filed in the background by JiraDefectFiler, and the same failure is filed only once per run.
+     * @data -> This is HashMap object created for TestRail integration. It's queued in TestRailPublisher
+     * and sent in bulk in the background, so the scenario thread doesn't wait on TestRail.
      */
     public void onTestFail(TestCaseFinished testCaseFinished) {
 
@@ -156,13 +216,7 @@ public class ApplicationHooks implements ConcurrentEventListener {
 
 
         if (testCaseFinished.getResult().toString().contains("status=FAILED")) {
-            JiraIntegration jiraIntegration = new JiraIntegration();
-            try {
-                jiraIntegration.jiraAuthentication();
-                jiraIntegration.createJiraIssue(scenarioName, finalResult, listOfFinalSteps);
-            } catch (Exception e) {
-                System.err.println("JIRA IS NOT CONNECTED PROPERLY.");
-            }
+            JiraDefectFiler.file(scenarioName, finalResult, listOfFinalSteps);
 
             data.put("status_id", FAIL_STATE);
             data.put("comment", FAILED_COMMENT + finalResult);
@@ -174,17 +228,11 @@ public class ApplicationHooks implements ConcurrentEventListener {
 
         if (caseId != null) {
             if (!caseId.equals("")) {
-                try {
-                    if (System.getenv("runIdTestRail") != null && System.getenv("runTestRailId").equals("")) {
-                        runId = System.getenv("runIdTestRail");
-                    }
-
-                    client = testRailApiClient();
-                    client.sendPost("add_result_for_case/" + runId + "/" + caseId, data);
-
-                } catch (IOException | APIException e) {
-                    e.printStackTrace();
+                if (System.getenv("runIdTestRail") != null && System.getenv("runTestRailId").equals("")) {
+                    runId = System.getenv("runIdTestRail");
                 }
+
+                TestRailPublisher.publish(runId, caseId, data);
             }
         } else {
             System.out.println("ID does not exist");
@@ -1,14 +1,25 @@
 package parallel;
 
+import apiHandlers.HttpConnectionPool;
+import apiHandlers.TokenCache;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.DataProvider;
+import setupAndUtilitys.util.Resources;
+import setupAndUtilitys.util.jdbc.ReadFromDB;
+import setupAndUtilitys.util.jiraIntegration.JiraDefectFiler;
+import setupAndUtilitys.util.screenshots.ScreenshotCapture;
+import setupAndUtilitys.util.waits.WaitStatistics;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Date;
 
 @CucumberOptions(
@@ -41,6 +52,8 @@ import java.util.Date;
 
 public class RunTests extends AbstractTestNGCucumberTests {
 
+    private static final Logger logger = LoggerFactory.getLogger(RunTests.class);
+
     /**
      * ParallelRun.class.getName()  -> or input desired String
      */
@@ -53,6 +66,47 @@ public class RunTests extends AbstractTestNGCucumberTests {
         Files.move(sourcePdf, sourcePdf.resolveSibling(fileName + ".pdf"));
     }
 
+    /**
+     * Write to the log locators on which we spent the most time waiting, so they can be checked.
+     */
+    @AfterSuite
+    public void logWaitStatistics() {
+        WaitStatistics.logSlowestLocators(20);
+    }
+
+    /**
+     * Write to the log how well tokens and HTTP connections were reused during API tests.
+     */
+    @AfterSuite
+    public void logApiStatistics() {
+        logger.info("{}", TokenCache.getStatistics());
+        HttpConnectionPool.logStatistics();
+    }
+
+    /**
+     * Payments that were queued with ReadFromDB.queueTransactionCheck() are verified here with one query.
+     */
+    @AfterSuite
+    public void verifyQueuedPayments() throws SQLException {
+        ReadFromDB.verifyQueuedTransactionChecks();
+    }
+
+    /**
+     * Wait for Jira defects that are filed in the background, so they aren't lost when the JVM exits.
+     */
+    @AfterSuite
+    public void fileJiraDefects() {
+        JiraDefectFiler.drain(Duration.ofSeconds(Long.parseLong(Resources.jiraDrainTimeoutSeconds.getResource())));
+    }
+
+    /**
+     * Wait for screenshots that are encoded in the background, so they are stored before the JVM exits.
+     */
+    @AfterSuite
+    public void storeScreenshots() {
+        ScreenshotCapture.drain(Duration.ofSeconds(Long.parseLong(Resources.screenshotDrainTimeoutSeconds.getResource())));
+    }
+
     @Override
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
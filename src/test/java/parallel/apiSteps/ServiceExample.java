@@ -23,7 +23,7 @@ public class ServiceExample extends ApiUtils {
      */
     private void searchMerchantDataExtraction(String resource) throws IOException {
         response = GET(requestSpecificationForGETWithHeader(), ExampleResource.exampleResourceTwo.getResource(resource), 200);
-        exampleObjectResponse = getObjectMapper().readValue(response.asString(), Root[].class);
+        exampleObjectResponse = deserializeResponse(response, Root[].class);
         for (Root root : exampleObjectResponse) {
             strOne = root.getResult().get(0).getReference();
         }
@@ -0,0 +1,26 @@
+-- Schema used by the LocalDB profile (in-memory H2 in MySQL mode).
+-- Only the tables and columns that ReadFromDB reads are created.
+
+CREATE TABLE IF NOT EXISTS payments
+(
+    id              VARCHAR(64) PRIMARY KEY,
+    reference       VARCHAR(128) NOT NULL,
+    subscription_id VARCHAR(64)
+);
+CREATE INDEX IF NOT EXISTS payments_reference ON payments (reference);
+
+CREATE TABLE IF NOT EXISTS transactions
+(
+    id         VARCHAR(64) PRIMARY KEY,
+    payment_id VARCHAR(64) NOT NULL,
+    type       VARCHAR(32) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS transactions_payment_id ON transactions (payment_id);
+
+CREATE TABLE IF NOT EXISTS billing_plans
+(
+    id        VARCHAR(64) PRIMARY KEY,
+    client_id VARCHAR(64) NOT NULL,
+    reference VARCHAR(128)
+);
+CREATE INDEX IF NOT EXISTS billing_plans_client_id ON billing_plans (client_id);